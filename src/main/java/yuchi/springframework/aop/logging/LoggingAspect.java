@@ -1,30 +1,51 @@
 package yuchi.springframework.aop.logging;
 
+import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.Profiles;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
 import tech.jhipster.config.JHipsterConstants;
+import yuchi.springframework.config.ApplicationProperties;
 
 /**
  * Aspect for logging execution of service and repository Spring components.
  *
- * By default, it only runs with the "dev" profile.
+ * By default, it only runs with the "dev" profile, see {@link ApplicationProperties.LoggingAspect}.
+ * <p>
+ * The logger of each method is looked up once, so that calls whose logger is not at debug level, or which are not
+ * sampled, only cost a map lookup. In reactive mode, the exit of methods returning a {@link Mono} or a {@link Flux} is
+ * logged when the publisher terminates, with the signal and the time since subscription.
  */
 @Aspect
 public class LoggingAspect {
 
     private final Environment env;
 
-    public LoggingAspect(Environment env) {
+    private final ApplicationProperties.LoggingAspect properties;
+
+    private final Map<Method, JoinPointLogger> loggers = new ConcurrentHashMap<>();
+
+    public LoggingAspect(Environment env, ApplicationProperties applicationProperties) {
         this.env = env;
+        this.properties = applicationProperties.getLoggingAspect();
     }
 
     /**
@@ -52,13 +73,25 @@ public class LoggingAspect {
     }
 
     /**
-     * Retrieves the {@link Logger} associated to the given {@link JoinPoint}.
+     * Retrieves the {@link Logger} associated to the method of the given {@link JoinPoint}.
      *
      * @param joinPoint join point we want the logger for.
-     * @return {@link Logger} associated to the given {@link JoinPoint}.
+     * @return {@link JoinPointLogger} associated to the method of the given {@link JoinPoint}.
      */
-    private Logger logger(JoinPoint joinPoint) {
-        return LoggerFactory.getLogger(joinPoint.getSignature().getDeclaringTypeName());
+    private JoinPointLogger logger(JoinPoint joinPoint) {
+        Signature signature = joinPoint.getSignature();
+        if (!(signature instanceof MethodSignature)) {
+            return new JoinPointLogger(signature);
+        }
+        // Spring AOP creates a join point for each call, but its method is the same for all the calls
+        Method method = ((MethodSignature) signature).getMethod();
+        JoinPointLogger logger = loggers.get(method);
+        return logger != null ? logger : loggers.computeIfAbsent(method, m -> new JoinPointLogger(signature));
+    }
+
+    private boolean isSampled() {
+        double sampleRate = properties.getSampleRate();
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
     }
 
     /**
@@ -69,22 +102,17 @@ public class LoggingAspect {
      */
     @AfterThrowing(pointcut = "applicationPackagePointcut() && springBeanPointcut()", throwing = "e")
     public void logAfterThrowing(JoinPoint joinPoint, Throwable e) {
+        JoinPointLogger logger = logger(joinPoint);
         if (env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT))) {
-            logger(joinPoint)
-                .error(
-                    "Exception in {}() with cause = \'{}\' and exception = \'{}\'",
-                    joinPoint.getSignature().getName(),
-                    e.getCause() != null ? e.getCause() : "NULL",
-                    e.getMessage(),
-                    e
-                );
+            logger.log.error(
+                "Exception in {}() with cause = \'{}\' and exception = \'{}\'",
+                logger.name,
+                e.getCause() != null ? e.getCause() : "NULL",
+                e.getMessage(),
+                e
+            );
         } else {
-            logger(joinPoint)
-                .error(
-                    "Exception in {}() with cause = {}",
-                    joinPoint.getSignature().getName(),
-                    e.getCause() != null ? e.getCause() : "NULL"
-                );
+            logger.log.error("Exception in {}() with cause = {}", logger.name, e.getCause() != null ? e.getCause() : "NULL");
         }
     }
 
@@ -97,19 +125,120 @@ public class LoggingAspect {
      */
     @Around("applicationPackagePointcut() && springBeanPointcut()")
     public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
-        Logger log = logger(joinPoint);
-        if (log.isDebugEnabled()) {
-            log.debug("Enter: {}() with argument[s] = {}", joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
+        JoinPointLogger logger = logger(joinPoint);
+        boolean debug = logger.log.isDebugEnabled() && isSampled();
+        if (debug) {
+            logger.log.debug("Enter: {}() with argument[s] = {}", logger.name, Arrays.toString(joinPoint.getArgs()));
         }
         try {
             Object result = joinPoint.proceed();
-            if (log.isDebugEnabled()) {
-                log.debug("Exit: {}() with result = {}", joinPoint.getSignature().getName(), result);
+            if (!debug) {
+                return result;
+            }
+            if (properties.getMode() == ApplicationProperties.LoggingAspect.Mode.REACTIVE) {
+                if (result instanceof Mono) {
+                    return logSignals((Mono<?>) result, logger);
+                }
+                if (result instanceof Flux) {
+                    return logSignals((Flux<?>) result, logger);
+                }
             }
+            logger.log.debug("Exit: {}() with result = {}", logger.name, result);
             return result;
         } catch (IllegalArgumentException e) {
-            log.error("Illegal argument: {} in {}()", Arrays.toString(joinPoint.getArgs()), joinPoint.getSignature().getName());
+            logger.log.error("Illegal argument: {} in {}()", Arrays.toString(joinPoint.getArgs()), logger.name);
             throw e;
         }
     }
+
+    private static <T> Mono<T> logSignals(Mono<T> mono, JoinPointLogger logger) {
+        return Mono.defer(
+            () -> {
+                SignalLogger signalLogger = new SignalLogger(logger, true);
+                return mono.doOnEach(signalLogger).doOnCancel(signalLogger::logCancel);
+            }
+        );
+    }
+
+    private static <T> Flux<T> logSignals(Flux<T> flux, JoinPointLogger logger) {
+        return Flux.defer(
+            () -> {
+                SignalLogger signalLogger = new SignalLogger(logger, false);
+                return flux.doOnEach(signalLogger).doOnCancel(signalLogger::logCancel);
+            }
+        );
+    }
+
+    /**
+     * The logger of a method, with its name.
+     */
+    private static final class JoinPointLogger {
+
+        private final Logger log;
+
+        private final String name;
+
+        private JoinPointLogger(Signature signature) {
+            this.log = LoggerFactory.getLogger(signature.getDeclaringTypeName());
+            this.name = signature.getName();
+        }
+    }
+
+    /**
+     * Logs the signals of one subscription to the publisher returned by a method.
+     * <p>
+     * Signals are serialized, so the count of elements needs no synchronization.
+     */
+    private static final class SignalLogger implements Consumer<Signal<?>> {
+
+        private final JoinPointLogger logger;
+
+        private final boolean mono;
+
+        private final long start = System.nanoTime();
+
+        private long elements;
+
+        private SignalLogger(JoinPointLogger logger, boolean mono) {
+            this.logger = logger;
+            this.mono = mono;
+        }
+
+        @Override
+        public void accept(Signal<?> signal) {
+            if (signal.isOnNext()) {
+                elements++;
+                if (mono) {
+                    logger.log.debug("Exit: {}() with result = {} after {} ms", logger.name, signal.get(), elapsedMillis());
+                }
+            } else if (signal.isOnComplete()) {
+                if (!mono || elements == 0) {
+                    logger.log.debug(
+                        "Exit: {}() with {} after {} element[s] in {} ms",
+                        logger.name,
+                        signal.getType(),
+                        elements,
+                        elapsedMillis()
+                    );
+                }
+            } else if (signal.isOnError()) {
+                logger.log.debug(
+                    "Exit: {}() with {} = \'{}\' after {} element[s] in {} ms",
+                    logger.name,
+                    signal.getType(),
+                    signal.getThrowable(),
+                    elements,
+                    elapsedMillis()
+                );
+            }
+        }
+
+        private void logCancel() {
+            logger.log.debug("Exit: {}() with cancel after {} element[s] in {} ms", logger.name, elements, elapsedMillis());
+        }
+
+        private long elapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+    }
 }
@@ -1,5 +1,7 @@
 package yuchi.springframework.config;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +11,433 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Cache cache = new Cache();
+
+    private final Security security = new Security();
+
+    private final UserCleanup userCleanup = new UserCleanup();
+
+    private final MailOutbox mailOutbox = new MailOutbox();
+
+    private final Spa spa = new Spa();
+
+    private final LoggingAspect loggingAspect = new LoggingAspect();
+
+    private final Reactor reactor = new Reactor();
+
+    private final Metrics metrics = new Metrics();
+
+    private final Netty netty = new Netty();
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    public UserCleanup getUserCleanup() {
+        return userCleanup;
+    }
+
+    public MailOutbox getMailOutbox() {
+        return mailOutbox;
+    }
+
+    public Spa getSpa() {
+        return spa;
+    }
+
+    public LoggingAspect getLoggingAspect() {
+        return loggingAspect;
+    }
+
+    public Reactor getReactor() {
+        return reactor;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public Netty getNetty() {
+        return netty;
+    }
+
+    public static class Cache {
+
+        private final Tasks tasks = new Tasks();
+
+        private final UserDetails userDetails = new UserDetails();
+
+        public Tasks getTasks() {
+            return tasks;
+        }
+
+        public UserDetails getUserDetails() {
+            return userDetails;
+        }
+
+        public static class Tasks {
+
+            private int timeToLiveSeconds = 60;
+
+            private long maxEntries = 10000;
+
+            public int getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+
+        public static class UserDetails {
+
+            private int timeToLiveSeconds = 30;
+
+            private long maxEntries = 1000;
+
+            public int getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+    }
+
+    public static class Security {
+
+        private final PasswordHashing passwordHashing = new PasswordHashing();
+
+        public PasswordHashing getPasswordHashing() {
+            return passwordHashing;
+        }
+
+        public static class PasswordHashing {
+
+            private int queueCapacity = 64;
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+        }
+    }
+
+    public static class UserCleanup {
+
+        private Mode mode = Mode.BATCH;
+
+        private int batchSize = 500;
+
+        private int concurrency = 2;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public enum Mode {
+            /**
+             * A nightly job deletes the users in batches.
+             */
+            BATCH,
+            /**
+             * A TTL index lets the database delete the users.
+             */
+            TTL
+        }
+    }
+
+    public static class MailOutbox {
+
+        private boolean enabled = true;
+
+        private int batchSize = 50;
+
+        private int pollIntervalSeconds = 5;
+
+        private int leaseSeconds = 300;
+
+        private int maxAttempts = 10;
+
+        private int initialBackoffSeconds = 30;
+
+        private int maxBackoffSeconds = 3600;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getPollIntervalSeconds() {
+            return pollIntervalSeconds;
+        }
+
+        public void setPollIntervalSeconds(int pollIntervalSeconds) {
+            this.pollIntervalSeconds = pollIntervalSeconds;
+        }
+
+        public int getLeaseSeconds() {
+            return leaseSeconds;
+        }
+
+        public void setLeaseSeconds(int leaseSeconds) {
+            this.leaseSeconds = leaseSeconds;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public int getInitialBackoffSeconds() {
+            return initialBackoffSeconds;
+        }
+
+        public void setInitialBackoffSeconds(int initialBackoffSeconds) {
+            this.initialBackoffSeconds = initialBackoffSeconds;
+        }
+
+        public int getMaxBackoffSeconds() {
+            return maxBackoffSeconds;
+        }
+
+        public void setMaxBackoffSeconds(int maxBackoffSeconds) {
+            this.maxBackoffSeconds = maxBackoffSeconds;
+        }
+    }
+
+    public static class Spa {
+
+        private List<String> excludedPathPrefixes = new ArrayList<>(
+            List.of("/api", "/management", "/services", "/swagger", "/v2/api-docs", "/v3/api-docs")
+        );
+
+        public List<String> getExcludedPathPrefixes() {
+            return excludedPathPrefixes;
+        }
+
+        public void setExcludedPathPrefixes(List<String> excludedPathPrefixes) {
+            this.excludedPathPrefixes = excludedPathPrefixes;
+        }
+    }
+
+    public static class LoggingAspect {
+
+        private boolean enabled = false;
+
+        private Mode mode = Mode.REACTIVE;
+
+        private double sampleRate = 1.0;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public enum Mode {
+            /**
+             * The exit is logged when the method returns, with the returned publisher.
+             */
+            CALL,
+            /**
+             * The exit of methods returning a {@link reactor.core.publisher.Mono} or a {@link reactor.core.publisher.Flux} is
+             * logged when the publisher terminates, with the signal and the time since subscription.
+             */
+            REACTIVE
+        }
+    }
+
+    public static class Reactor {
+
+        private TracingMode tracingMode = TracingMode.AGENT;
+
+        public TracingMode getTracingMode() {
+            return tracingMode;
+        }
+
+        public void setTracingMode(TracingMode tracingMode) {
+            this.tracingMode = tracingMode;
+        }
+
+        public enum TracingMode {
+            /**
+             * Only the checkpoints of the main pipelines tell where errors went through.
+             */
+            NONE,
+            /**
+             * The debug agent instruments the classes calling operators, so that errors tell where each operator was
+             * assembled, without capturing stack traces at runtime.
+             */
+            AGENT,
+            /**
+             * Each operator captures a stack trace when it is assembled.
+             */
+            OPERATOR_DEBUG
+        }
+    }
+
+    public static class Metrics {
+
+        private final HotPaths hotPaths = new HotPaths();
+
+        private List<Long> tasksServiceLevelObjectivesMillis = new ArrayList<>(List.of(25L, 50L, 100L, 250L, 500L, 1000L));
+
+        public HotPaths getHotPaths() {
+            return hotPaths;
+        }
+
+        public List<Long> getTasksServiceLevelObjectivesMillis() {
+            return tasksServiceLevelObjectivesMillis;
+        }
+
+        public void setTasksServiceLevelObjectivesMillis(List<Long> tasksServiceLevelObjectivesMillis) {
+            this.tasksServiceLevelObjectivesMillis = tasksServiceLevelObjectivesMillis;
+        }
+
+        public static class HotPaths {
+
+            private int windowSeconds = 300;
+
+            private int limit = 10;
+
+            public int getWindowSeconds() {
+                return windowSeconds;
+            }
+
+            public void setWindowSeconds(int windowSeconds) {
+                this.windowSeconds = windowSeconds;
+            }
+
+            public int getLimit() {
+                return limit;
+            }
+
+            public void setLimit(int limit) {
+                this.limit = limit;
+            }
+        }
+    }
+
+    public static class Netty {
+
+        private int eventLoopThreads = 0;
+
+        private boolean nativeTransport = true;
+
+        private int connectionBacklog = 0;
+
+        private boolean metricsEnabled = false;
+
+        public int getEventLoopThreads() {
+            return eventLoopThreads;
+        }
+
+        public void setEventLoopThreads(int eventLoopThreads) {
+            this.eventLoopThreads = eventLoopThreads;
+        }
+
+        public boolean isNativeTransport() {
+            return nativeTransport;
+        }
+
+        public void setNativeTransport(boolean nativeTransport) {
+            this.nativeTransport = nativeTransport;
+        }
+
+        public int getConnectionBacklog() {
+            return connectionBacklog;
+        }
+
+        public void setConnectionBacklog(int connectionBacklog) {
+            this.connectionBacklog = connectionBacklog;
+        }
+
+        public boolean isMetricsEnabled() {
+            return metricsEnabled;
+        }
+
+        public void setMetricsEnabled(boolean metricsEnabled) {
+            this.metricsEnabled = metricsEnabled;
+        }
+    }
+}
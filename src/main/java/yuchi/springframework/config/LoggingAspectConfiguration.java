@@ -1,8 +1,8 @@
 package yuchi.springframework.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
-import tech.jhipster.config.JHipsterConstants;
 import yuchi.springframework.aop.logging.LoggingAspect;
 
 @Configuration
@@ -10,8 +10,8 @@ import yuchi.springframework.aop.logging.LoggingAspect;
 public class LoggingAspectConfiguration {
 
     @Bean
-    @Profile(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)
-    public LoggingAspect loggingAspect(Environment env) {
-        return new LoggingAspect(env);
+    @ConditionalOnProperty(prefix = "application.logging-aspect", name = "enabled", havingValue = "true")
+    public LoggingAspect loggingAspect(Environment env, ApplicationProperties applicationProperties) {
+        return new LoggingAspect(env, applicationProperties);
     }
 }
@@ -0,0 +1,76 @@
+package yuchi.springframework.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import yuchi.springframework.config.metric.HotPaths;
+import yuchi.springframework.config.metric.HotPathsEndpoint;
+import yuchi.springframework.config.metric.MongoCommandMetrics;
+
+@Configuration
+public class MetricsConfiguration {
+
+    private static final String HTTP_SERVER_REQUESTS = "http.server.requests";
+
+    private static final String TASKS_URI_PREFIX = "/api/tasks";
+
+    // Streamed for as long as the client is connected, so it has no latency objective
+    private static final String TASKS_CHANGES_URI = "/api/tasks/changes";
+
+    private final ApplicationProperties.Metrics properties;
+
+    public MetricsConfiguration(ApplicationProperties applicationProperties) {
+        this.properties = applicationProperties.getMetrics();
+    }
+
+    @Bean
+    public HotPaths hotPaths() {
+        return new HotPaths(Duration.ofSeconds(properties.getHotPaths().getWindowSeconds()), properties.getHotPaths().getLimit());
+    }
+
+    @Bean
+    @ConditionalOnAvailableEndpoint
+    public HotPathsEndpoint hotPathsEndpoint(HotPaths hotPaths) {
+        return new HotPathsEndpoint(hotPaths);
+    }
+
+    /**
+     * Times the commands of the Mongo driver by collection and command.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandMetricsCustomizer(MeterRegistry meterRegistry, HotPaths hotPaths) {
+        MongoCommandMetrics mongoCommandMetrics = new MongoCommandMetrics(meterRegistry, hotPaths);
+        return builder -> builder.addCommandListener(mongoCommandMetrics);
+    }
+
+    /**
+     * Adds the service level objectives of the tasks API to the histograms of its routes, to count the requests
+     * within each objective.
+     * <p>
+     * The changes of the tasks are left out. The {@code application/x-ndjson} stream of all the tasks can't be, as it
+     * shares its {@code uri} tag with the pages of the tasks.
+     */
+    @Bean
+    public MeterFilter tasksServiceLevelObjectivesMeterFilter() {
+        List<Long> objectives = properties.getTasksServiceLevelObjectivesMillis();
+        double[] objectivesNanos = objectives.stream().mapToDouble(millis -> Duration.ofMillis(millis).toNanos()).toArray();
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                String uri = id.getTag("uri");
+                boolean tasksRoute = uri != null && uri.startsWith(TASKS_URI_PREFIX) && !uri.startsWith(TASKS_CHANGES_URI);
+                if (HTTP_SERVER_REQUESTS.equals(id.getName()) && tasksRoute) {
+                    return DistributionStatisticConfig.builder().serviceLevelObjectives(objectivesNanos).build().merge(config);
+                }
+                return config;
+            }
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package yuchi.springframework.config;
+
+import io.netty.channel.ChannelOption;
+import java.util.Set;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpResources;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Configuration of the embedded Netty server, see {@link ApplicationProperties.Netty}.
+ * <p>
+ * Compression and HTTP/2 are left to the {@code server.compression} and {@code server.http2} properties of Spring
+ * Boot, which applies them to Netty: without TLS, {@code server.http2.enabled} serves h2c along with HTTP/1.1.
+ */
+@Configuration
+public class NettyConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(NettyConfiguration.class);
+
+    private static final String EVENT_LOOP_PREFIX = "http-server";
+
+    // The resources of the REST API, see the @RequestMapping of the web.rest package
+    private static final Set<String> API_RESOURCES = Set.of(
+        "account",
+        "activate",
+        "admin",
+        "authenticate",
+        "authorities",
+        "register",
+        "tasks",
+        "users"
+    );
+
+    static final String OTHER_URI_TAG = "OTHER";
+
+    private final ApplicationProperties.Netty properties;
+
+    private LoopResources loopResources;
+
+    public NettyConfiguration(ApplicationProperties applicationProperties) {
+        this.properties = applicationProperties.getNetty();
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> nettyServerFactoryCustomizer() {
+        return factory -> factory.addServerCustomizers(this::customize);
+    }
+
+    private HttpServer customize(HttpServer server) {
+        boolean nativeTransport = properties.isNativeTransport() && LoopResources.hasNativeSupport();
+        log.info(
+            "Netty server on {} transport, with {} event loop threads",
+            nativeTransport ? "native" : "NIO",
+            properties.getEventLoopThreads() > 0 ? properties.getEventLoopThreads() : "the default"
+        );
+        if (properties.getEventLoopThreads() > 0) {
+            // Dedicated to the server, so that its sizing doesn't depend on the WebClient sharing the global loops, and
+            // shared by the servers of the factory, when it makes more than one, so that none of them leaks
+            if (loopResources == null) {
+                loopResources = LoopResources.create(EVENT_LOOP_PREFIX, properties.getEventLoopThreads(), true);
+            }
+            server = server.runOn(loopResources, properties.isNativeTransport());
+        } else if (!properties.isNativeTransport()) {
+            server = server.runOn(HttpResources.get(), false);
+        }
+        if (properties.getConnectionBacklog() > 0) {
+            server = server.option(ChannelOption.SO_BACKLOG, properties.getConnectionBacklog());
+        }
+        if (properties.isMetricsEnabled()) {
+            // Published to the global registry, which Spring Boot binds to its own
+            server = server.metrics(true, NettyConfiguration::uriTag);
+        }
+        return server;
+    }
+
+    /**
+     * Tags a URI with its REST resource, so that neither identifiers nor the paths probed by scanners make new tags.
+     *
+     * @param uri the URI of a request.
+     * @return {@code /api/<resource>} for the known resources of the REST API, {@code /management} for the actuator,
+     * and {@link #OTHER_URI_TAG} for any other URI.
+     */
+    static String uriTag(String uri) {
+        int end = uri.indexOf('?');
+        String path = end < 0 ? uri : uri.substring(0, end);
+        if (path.equals("/management") || path.startsWith("/management/")) {
+            return "/management";
+        }
+        if (path.startsWith("/api/")) {
+            int resourceEnd = path.indexOf('/', "/api/".length());
+            String resource = path.substring("/api/".length(), resourceEnd < 0 ? path.length() : resourceEnd);
+            if (API_RESOURCES.contains(resource)) {
+                return "/api/" + resource;
+            }
+        }
+        return OTHER_URI_TAG;
+    }
+
+    @PreDestroy
+    public void disposeLoopResources() {
+        if (loopResources != null) {
+            loopResources.dispose();
+        }
+    }
+}
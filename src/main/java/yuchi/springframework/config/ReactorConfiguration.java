@@ -1,15 +1,66 @@
 package yuchi.springframework.config;
 
-import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Profile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationListener;
 import reactor.core.publisher.Hooks;
-import tech.jhipster.config.JHipsterConstants;
+import reactor.tools.agent.ReactorDebugAgent;
 
-@Configuration
-@Profile("!" + JHipsterConstants.SPRING_PROFILE_PRODUCTION)
-public class ReactorConfiguration {
+/**
+ * Configuration of the assembly tracing of the reactive pipelines, see {@link ApplicationProperties.Reactor}.
+ * <p>
+ * The tracing is turned on as soon as the environment is prepared, before the context loads the application classes,
+ * as the debug agent must be installed before the operators are assembled. This listener is registered in
+ * {@code META-INF/spring.factories}, so that it also applies to the tests and to the load test harness.
+ * <p>
+ * Whatever the mode, the main pipelines of the REST resources and of the services are marked with light checkpoints,
+ * which cost no stack trace.
+ */
+public class ReactorConfiguration implements ApplicationListener<ApplicationEnvironmentPreparedEvent> {
 
-    public ReactorConfiguration() {
-        Hooks.onOperatorDebug();
+    private static final Logger log = LoggerFactory.getLogger(ReactorConfiguration.class);
+
+    private static final String TRACING_MODE_PROPERTY = "application.reactor.tracing-mode";
+
+    @Override
+    public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
+        ApplicationProperties.Reactor.TracingMode tracingMode = Binder
+            .get(event.getEnvironment())
+            .bind(TRACING_MODE_PROPERTY, ApplicationProperties.Reactor.TracingMode.class)
+            .orElseGet(() -> new ApplicationProperties.Reactor().getTracingMode());
+        configureTracing(tracingMode);
+    }
+
+    /**
+     * Turns on the assembly tracing of the given mode.
+     * <p>
+     * The debug agent attaches itself to the running JVM, which some JVMs don't allow: the tracing is then turned off.
+     *
+     * @param tracingMode the tracing mode.
+     * @return the tracing mode turned on.
+     */
+    public static ApplicationProperties.Reactor.TracingMode configureTracing(ApplicationProperties.Reactor.TracingMode tracingMode) {
+        log.debug("Reactor assembly tracing: {}", tracingMode);
+        switch (tracingMode) {
+            case AGENT:
+                try {
+                    // Idempotent, and instruments the classes loaded before the agent
+                    ReactorDebugAgent.init();
+                    ReactorDebugAgent.processExistingClasses();
+                    return tracingMode;
+                } catch (RuntimeException | LinkageError e) {
+                    log.warn("Could not install the Reactor debug agent, assembly tracing is turned off: {}", e.toString());
+                    Hooks.resetOnOperatorDebug();
+                    return ApplicationProperties.Reactor.TracingMode.NONE;
+                }
+            case OPERATOR_DEBUG:
+                Hooks.onOperatorDebug();
+                return tracingMode;
+            default:
+                Hooks.resetOnOperatorDebug();
+                return tracingMode;
+        }
     }
 }
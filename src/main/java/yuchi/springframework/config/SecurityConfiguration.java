@@ -20,6 +20,7 @@ import org.springframework.security.web.server.util.matcher.NegatedServerWebExch
 import org.springframework.security.web.server.util.matcher.OrServerWebExchangeMatcher;
 import org.zalando.problem.spring.webflux.advice.security.SecurityProblemSupport;
 import yuchi.springframework.security.AuthoritiesConstants;
+import yuchi.springframework.security.PasswordHashingScheduler;
 import yuchi.springframework.security.jwt.JWTFilter;
 import yuchi.springframework.security.jwt.TokenProvider;
 import yuchi.springframework.web.filter.SpaWebFilter;
@@ -35,14 +36,22 @@ public class SecurityConfiguration {
 
     private final SecurityProblemSupport problemSupport;
 
+    private final PasswordHashingScheduler passwordHashingScheduler;
+
+    private final SpaWebFilter spaWebFilter;
+
     public SecurityConfiguration(
         ReactiveUserDetailsService userDetailsService,
         TokenProvider tokenProvider,
-        SecurityProblemSupport problemSupport
+        SecurityProblemSupport problemSupport,
+        PasswordHashingScheduler passwordHashingScheduler,
+        SpaWebFilter spaWebFilter
     ) {
         this.userDetailsService = userDetailsService;
         this.tokenProvider = tokenProvider;
         this.problemSupport = problemSupport;
+        this.passwordHashingScheduler = passwordHashingScheduler;
+        this.spaWebFilter = spaWebFilter;
     }
 
     @Bean
@@ -56,6 +65,7 @@ public class SecurityConfiguration {
             userDetailsService
         );
         authenticationManager.setPasswordEncoder(passwordEncoder());
+        authenticationManager.setScheduler(passwordHashingScheduler.getScheduler());
         return authenticationManager;
     }
 
@@ -69,7 +79,7 @@ public class SecurityConfiguration {
             )))
             .csrf()
                 .disable()
-            .addFilterAt(new SpaWebFilter(), SecurityWebFiltersOrder.AUTHENTICATION)
+            .addFilterAt(spaWebFilter, SecurityWebFiltersOrder.AUTHENTICATION)
             .addFilterAt(new JWTFilter(tokenProvider), SecurityWebFiltersOrder.HTTP_BASIC)
             .authenticationManager(reactiveAuthenticationManager())
             .exceptionHandling()
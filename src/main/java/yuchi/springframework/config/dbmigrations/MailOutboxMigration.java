@@ -0,0 +1,27 @@
+package yuchi.springframework.config.dbmigrations;
+
+import com.github.cloudyrock.mongock.ChangeLog;
+import com.github.cloudyrock.mongock.ChangeSet;
+import com.github.cloudyrock.mongock.driver.mongodb.springdata.v3.decorator.impl.MongockTemplate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import yuchi.springframework.domain.MailMessage;
+
+/**
+ * Creates the indexes of the mail outbox, used by the workers to find the due messages and their claimed batches.
+ */
+@ChangeLog(order = "006")
+public class MailOutboxMigration {
+
+    @ChangeSet(order = "01", author = "initiator", id = "01-addMailOutboxIndexes")
+    public void addMailOutboxIndexes(MongockTemplate mongoTemplate) {
+        // The indexes are declared rather than resolved from the entity, which may change after the changeset is applied
+        IndexOperations indexOperations = mongoTemplate.indexOps(MailMessage.class);
+        indexOperations.ensureIndex(new Index().on("next_attempt_date", Sort.Direction.ASC).named("next_attempt_date"));
+        // Sparse, as only the claimed messages have a claim token
+        indexOperations.ensureIndex(
+            new Index().on("claim_token", Sort.Direction.ASC).named("claim_token").sparse()
+        );
+    }
+}
@@ -0,0 +1,60 @@
+package yuchi.springframework.config.dbmigrations;
+
+import com.github.cloudyrock.mongock.ChangeLog;
+import com.github.cloudyrock.mongock.ChangeSet;
+import com.github.cloudyrock.mongock.driver.mongodb.springdata.v3.decorator.impl.MongockTemplate;
+import java.util.Set;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import yuchi.springframework.domain.Tasks;
+
+/**
+ * Creates the indexes of the tasks collection, as automatic index creation is disabled.
+ * <p>
+ * Each changeset declares its indexes rather than resolving them from the {@link Tasks} annotations, so that an
+ * applied changeset keeps meaning the indexes it created.
+ */
+@ChangeLog(order = "002")
+public class TasksIndexesMigration {
+
+    // The indexes which couldn't give the _id order of the pages
+    private static final Set<String> UNORDERED_INDEXES = Set.of("completed_due_date", "due_date", "name");
+
+    @ChangeSet(order = "01", author = "initiator", id = "01-addTasksIndexes")
+    public void addTasksIndexes(MongockTemplate mongoTemplate) {
+        IndexOperations indexOperations = mongoTemplate.indexOps(Tasks.class);
+        indexOperations.ensureIndex(
+            new Index().on("completed", Sort.Direction.ASC).on("due_date", Sort.Direction.ASC).named("completed_due_date")
+        );
+        indexOperations.ensureIndex(new Index().on("due_date", Sort.Direction.ASC).named("due_date"));
+        indexOperations.ensureIndex(new Index().on("name", Sort.Direction.ASC).named("name"));
+    }
+
+    @ChangeSet(order = "02", author = "initiator", id = "02-orderTasksIndexesById")
+    public void orderTasksIndexesById(MongockTemplate mongoTemplate) {
+        IndexOperations indexOperations = mongoTemplate.indexOps(Tasks.class);
+        indexOperations
+            .getIndexInfo()
+            .stream()
+            .map(IndexInfo::getName)
+            .filter(UNORDERED_INDEXES::contains)
+            .forEach(indexOperations::dropIndex);
+        indexOperations.ensureIndex(
+            new Index()
+                .on("completed", Sort.Direction.ASC)
+                .on("_id", Sort.Direction.ASC)
+                .on("due_date", Sort.Direction.ASC)
+                .on("name", Sort.Direction.ASC)
+                .named("completed_id_due_date_name")
+        );
+        indexOperations.ensureIndex(
+            new Index()
+                .on("_id", Sort.Direction.ASC)
+                .on("due_date", Sort.Direction.ASC)
+                .on("name", Sort.Direction.ASC)
+                .named("id_due_date_name")
+        );
+    }
+}
@@ -0,0 +1,21 @@
+package yuchi.springframework.config.dbmigrations;
+
+import com.github.cloudyrock.mongock.ChangeLog;
+import com.github.cloudyrock.mongock.ChangeSet;
+import com.github.cloudyrock.mongock.driver.mongodb.springdata.v3.decorator.impl.MongockTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import yuchi.springframework.domain.Tasks;
+
+/**
+ * Initializes the version of the tasks created before optimistic locking was introduced.
+ */
+@ChangeLog(order = "003")
+public class TasksVersionMigration {
+
+    @ChangeSet(order = "01", author = "initiator", id = "01-initTasksVersion")
+    public void initTasksVersion(MongockTemplate mongoTemplate) {
+        mongoTemplate.updateMulti(Query.query(Criteria.where("version").exists(false)), new Update().set("version", 0L), Tasks.class);
+    }
+}
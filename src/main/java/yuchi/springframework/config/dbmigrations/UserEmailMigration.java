@@ -0,0 +1,46 @@
+package yuchi.springframework.config.dbmigrations;
+
+import com.github.cloudyrock.mongock.ChangeLog;
+import com.github.cloudyrock.mongock.ChangeSet;
+import com.github.cloudyrock.mongock.driver.mongodb.springdata.v3.decorator.impl.MongockTemplate;
+import java.util.Locale;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import yuchi.springframework.domain.User;
+
+/**
+ * Normalizes the emails of the users to lowercase, so that they are looked up with an exact match on the email index.
+ */
+@ChangeLog(order = "004")
+public class UserEmailMigration {
+
+    @ChangeSet(order = "01", author = "initiator", id = "01-lowercaseUserEmails")
+    public void lowercaseUserEmails(MongockTemplate mongoTemplate) {
+        Query query = Query.query(Criteria.where("email").type(2)); // Only string emails
+        query.fields().include("email");
+        for (Document user : mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(User.class))) {
+            String email = user.getString("email");
+            String lowercaseEmail = email.toLowerCase(Locale.ENGLISH);
+            if (!email.equals(lowercaseEmail)) {
+                mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(user.get("_id"))),
+                    new Update().set("email", lowercaseEmail),
+                    User.class
+                );
+            }
+        }
+    }
+
+    @ChangeSet(order = "02", author = "initiator", id = "02-addUserIndexes")
+    public void addUserIndexes(MongockTemplate mongoTemplate) {
+        // The indexes are declared rather than resolved from the entity, which may have changed since
+        IndexOperations indexOperations = mongoTemplate.indexOps(User.class);
+        indexOperations.ensureIndex(new Index().on("login", Sort.Direction.ASC).named("login"));
+        indexOperations.ensureIndex(new Index().on("email", Sort.Direction.ASC).named("email"));
+    }
+}
@@ -0,0 +1,38 @@
+package yuchi.springframework.config.dbmigrations;
+
+import com.github.cloudyrock.mongock.ChangeLog;
+import com.github.cloudyrock.mongock.ChangeSet;
+import com.github.cloudyrock.mongock.driver.mongodb.springdata.v3.decorator.impl.MongockTemplate;
+import java.util.Set;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import yuchi.springframework.domain.User;
+
+/**
+ * Makes the login and email indexes of the users unique, so that registration can rely on them instead of lookups.
+ * <p>
+ * Existing users must not share a login or an email, which {@link UserEmailMigration} may have revealed by lowercasing
+ * the emails.
+ */
+@ChangeLog(order = "005")
+public class UserUniqueIndexesMigration {
+
+    private static final Set<String> UNIQUE_INDEXES = Set.of("login", "email");
+
+    @ChangeSet(order = "01", author = "initiator", id = "01-addUniqueUserIndexes")
+    public void addUniqueUserIndexes(MongockTemplate mongoTemplate) {
+        IndexOperations indexOperations = mongoTemplate.indexOps(User.class);
+        // An index can't be made unique in place, so the non unique ones created by UserEmailMigration are dropped first
+        indexOperations
+            .getIndexInfo()
+            .stream()
+            .filter(index -> UNIQUE_INDEXES.contains(index.getName()) && !index.isUnique())
+            .map(IndexInfo::getName)
+            .forEach(indexOperations::dropIndex);
+        indexOperations.ensureIndex(new Index().on("login", Sort.Direction.ASC).named("login").unique());
+        // Sparse, as several users may have no email
+        indexOperations.ensureIndex(new Index().on("email", Sort.Direction.ASC).named("email").unique().sparse());
+    }
+}
@@ -0,0 +1,201 @@
+package yuchi.springframework.config.metric;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Latencies of the HTTP routes and of the Mongo commands over a sliding window, to find the slowest ones.
+ * <p>
+ * The window is split in {@link #SLOTS} slots, each holding the statistics of the paths recorded during its period. A
+ * slot is reset when it is reused for a new period, so recording only costs a map lookup and a few additions, and
+ * the statistics of the window are merged from the slots when they are read.
+ */
+public class HotPaths {
+
+    public enum Kind {
+        ROUTE,
+        QUERY
+    }
+
+    static final int SLOTS = 10;
+
+    private final long slotNanos;
+
+    private final int limit;
+
+    private final LongSupplier nanoClock;
+
+    private final Slot[] slots = new Slot[SLOTS];
+
+    public HotPaths(Duration window, int limit) {
+        this(window, limit, System::nanoTime);
+    }
+
+    HotPaths(Duration window, int limit, LongSupplier nanoClock) {
+        this.slotNanos = Math.max(1, window.toNanos() / SLOTS);
+        this.limit = limit;
+        this.nanoClock = nanoClock;
+        for (int i = 0; i < SLOTS; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    /**
+     * Records the latency of a path.
+     *
+     * @param kind the kind of the path.
+     * @param name the name of the path, such as the method and the pattern of a route.
+     * @param nanos the latency, in nanoseconds.
+     * @param failed whether the path failed.
+     */
+    public void record(Kind kind, String name, long nanos, boolean failed) {
+        long period = Math.floorDiv(nanoClock.getAsLong(), slotNanos);
+        slots[(int) Math.floorMod(period, SLOTS)].paths(period, kind).computeIfAbsent(name, key -> new Stats()).record(nanos, failed);
+    }
+
+    /**
+     * Gets the slowest paths of the window, by mean latency.
+     *
+     * @param kind the kind of the paths.
+     * @return the slowest paths, at most the configured limit.
+     */
+    public List<HotPath> getSlowest(Kind kind) {
+        long period = Math.floorDiv(nanoClock.getAsLong(), slotNanos);
+        Map<String, HotPath> merged = new HashMap<>();
+        for (Slot slot : slots) {
+            Map<String, Stats> paths = slot.pathsIfCurrent(period, kind);
+            if (paths != null) {
+                paths.forEach((name, stats) -> merged.computeIfAbsent(name, HotPath::new).add(stats));
+            }
+        }
+        List<HotPath> slowest = new ArrayList<>(merged.values());
+        slowest.sort(Comparator.comparingDouble(HotPath::getMeanMillis).reversed());
+        return slowest.size() > limit ? new ArrayList<>(slowest.subList(0, limit)) : slowest;
+    }
+
+    /**
+     * @return the duration of the window.
+     */
+    public Duration getWindow() {
+        return Duration.ofNanos(slotNanos * SLOTS);
+    }
+
+    private static final class Slot {
+
+        private volatile long period = Long.MIN_VALUE;
+
+        private volatile Map<Kind, Map<String, Stats>> paths = newPaths();
+
+        private Map<String, Stats> paths(long period, Kind kind) {
+            if (this.period != period) {
+                synchronized (this) {
+                    if (this.period != period) {
+                        // Paths recorded concurrently in the previous maps are dropped with them
+                        paths = newPaths();
+                        this.period = period;
+                    }
+                }
+            }
+            return paths.get(kind);
+        }
+
+        private Map<String, Stats> pathsIfCurrent(long currentPeriod, Kind kind) {
+            long slotPeriod = period;
+            return slotPeriod <= currentPeriod && slotPeriod > currentPeriod - SLOTS ? paths.get(kind) : null;
+        }
+
+        private static Map<Kind, Map<String, Stats>> newPaths() {
+            Map<Kind, Map<String, Stats>> paths = new EnumMap<>(Kind.class);
+            for (Kind kind : Kind.values()) {
+                paths.put(kind, new ConcurrentHashMap<>());
+            }
+            return paths;
+        }
+    }
+
+    private static final class Stats {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder failures = new LongAdder();
+
+        private final LongAdder totalNanos = new LongAdder();
+
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private void record(long nanos, boolean failed) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (failed) {
+                failures.increment();
+            }
+        }
+    }
+
+    /**
+     * The statistics of a path over the window.
+     */
+    public static final class HotPath {
+
+        private final String name;
+
+        private long count;
+
+        private long failures;
+
+        private long totalNanos;
+
+        private long maxNanos;
+
+        private HotPath(String name) {
+            this.name = name;
+        }
+
+        private HotPath add(Stats stats) {
+            count += stats.count.sum();
+            failures += stats.failures.sum();
+            totalNanos += stats.totalNanos.sum();
+            maxNanos = Math.max(maxNanos, stats.maxNanos.get());
+            return this;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public double getMeanMillis() {
+            return count == 0 ? 0 : toMillis(totalNanos) / count;
+        }
+
+        public double getMaxMillis() {
+            return toMillis(maxNanos);
+        }
+
+        public double getTotalMillis() {
+            return toMillis(totalNanos);
+        }
+
+        private static double toMillis(long nanos) {
+            return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
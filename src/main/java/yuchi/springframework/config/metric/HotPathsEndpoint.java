@@ -0,0 +1,28 @@
+package yuchi.springframework.config.metric;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * {@code /management/hotpaths}: the slowest HTTP routes and Mongo commands over the window of the {@link HotPaths}.
+ */
+@Endpoint(id = "hotpaths")
+public class HotPathsEndpoint {
+
+    private final HotPaths hotPaths;
+
+    public HotPathsEndpoint(HotPaths hotPaths) {
+        this.hotPaths = hotPaths;
+    }
+
+    @ReadOperation
+    public Map<String, Object> hotPaths() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("windowSeconds", hotPaths.getWindow().toSeconds());
+        result.put("routes", hotPaths.getSlowest(HotPaths.Kind.ROUTE));
+        result.put("queries", hotPaths.getSlowest(HotPaths.Kind.QUERY));
+        return result;
+    }
+}
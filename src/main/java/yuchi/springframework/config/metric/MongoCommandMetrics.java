@@ -0,0 +1,175 @@
+package yuchi.springframework.config.metric;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.bson.BsonBoolean;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+/**
+ * Listener of the commands of the Mongo driver, timing them by collection and command.
+ * <p>
+ * The timers are named and tagged like those of Micrometer's {@code MongoMetricsCommandListener}, and the commands
+ * are also recorded as the queries of the {@link HotPaths}, except for the {@code getMore} of the change streams and of
+ * the tailable cursors: they wait for new documents, for up to their await time, rather than read existing ones.
+ */
+public class MongoCommandMetrics implements CommandListener {
+
+    static final String TIMER_NAME = "mongodb.driver.commands";
+
+    // Commands whose collection is the value of the command, the other ones have none
+    private static final Set<String> COLLECTION_COMMANDS = Set.of(
+        "aggregate",
+        "count",
+        "create",
+        "createIndexes",
+        "delete",
+        "distinct",
+        "drop",
+        "dropIndexes",
+        "find",
+        "findAndModify",
+        "insert",
+        "listIndexes",
+        "mapReduce",
+        "update"
+    );
+
+    private static final String NO_COLLECTION = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    private final HotPaths hotPaths;
+
+    private final Map<Integer, StartedCommand> commandsByRequestId = new ConcurrentHashMap<>();
+
+    // The ids of the cursors whose getMore waits for new documents
+    private final Set<Long> awaitingCursorIds = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public MongoCommandMetrics(MeterRegistry meterRegistry, HotPaths hotPaths) {
+        this.meterRegistry = meterRegistry;
+        this.hotPaths = hotPaths;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String commandName = event.getCommandName();
+        BsonDocument command = event.getCommand();
+        if ("killCursors".equals(commandName) && command.isArray("cursors")) {
+            command
+                .getArray("cursors")
+                .stream()
+                .filter(BsonValue::isInt64)
+                .forEach(cursorId -> awaitingCursorIds.remove(cursorId.asInt64().getValue()));
+        }
+        long awaitingCursorId = "getMore".equals(commandName) && command.isInt64("getMore") ? command.getInt64("getMore").getValue() : 0;
+        commandsByRequestId.put(
+            event.getRequestId(),
+            new StartedCommand(
+                getCollection(commandName, command),
+                opensAwaitingCursor(commandName, command),
+                awaitingCursorIds.contains(awaitingCursorId) ? awaitingCursorId : 0
+            )
+        );
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        StartedCommand command = record(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), false);
+        if (command == null || (!command.opensAwaitingCursor && !command.isAwaiting())) {
+            return;
+        }
+        // The cursor stays open as long as the server returns its id, and is closed once it returns 0
+        BsonDocument cursor = event.getResponse().getDocument("cursor", null);
+        long cursorId = cursor != null && cursor.isInt64("id") ? cursor.getInt64("id").getValue() : 0;
+        if (command.opensAwaitingCursor && cursorId != 0) {
+            awaitingCursorIds.add(cursorId);
+        } else if (command.isAwaiting() && cursorId == 0) {
+            awaitingCursorIds.remove(command.awaitingCursorId);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        StartedCommand command = record(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), true);
+        if (command != null && command.isAwaiting()) {
+            // The driver resumes a failed change stream with a new cursor
+            awaitingCursorIds.remove(command.awaitingCursorId);
+        }
+    }
+
+    private StartedCommand record(int requestId, String commandName, long nanos, boolean failed) {
+        StartedCommand command = commandsByRequestId.remove(requestId);
+        String collection = command == null ? NO_COLLECTION : command.collection;
+        timer(commandName, collection, failed ? "FAILED" : "SUCCESS").record(nanos, TimeUnit.NANOSECONDS);
+        if (command == null || !command.isAwaiting()) {
+            hotPaths.record(HotPaths.Kind.QUERY, commandName + ' ' + collection, nanos, failed);
+        }
+        return command;
+    }
+
+    private Timer timer(String commandName, String collection, String status) {
+        return timers.computeIfAbsent(
+            commandName + '|' + collection + '|' + status,
+            key ->
+                Timer
+                    .builder(TIMER_NAME)
+                    .description("Timer of mongodb commands")
+                    .tag("command", commandName)
+                    .tag("collection", collection)
+                    .tag("status", status)
+                    .register(meterRegistry)
+        );
+    }
+
+    private static String getCollection(String commandName, BsonDocument command) {
+        BsonValue collection = COLLECTION_COMMANDS.contains(commandName)
+            ? command.get(commandName)
+            : "getMore".equals(commandName) ? command.get("collection") : null;
+        return collection != null && collection.isString() ? collection.asString().getValue() : NO_COLLECTION;
+    }
+
+    /**
+     * @return whether the command opens a change stream or a tailable cursor, whose getMore waits for new documents.
+     */
+    private static boolean opensAwaitingCursor(String commandName, BsonDocument command) {
+        if ("find".equals(commandName)) {
+            return command.getBoolean("tailable", BsonBoolean.FALSE).getValue();
+        }
+        if ("aggregate".equals(commandName) && command.isArray("pipeline") && !command.getArray("pipeline").isEmpty()) {
+            BsonValue firstStage = command.getArray("pipeline").get(0);
+            return firstStage.isDocument() && firstStage.asDocument().containsKey("$changeStream");
+        }
+        return false;
+    }
+
+    private static final class StartedCommand {
+
+        private final String collection;
+
+        private final boolean opensAwaitingCursor;
+
+        // The id of the cursor this getMore waits on, or 0
+        private final long awaitingCursorId;
+
+        private StartedCommand(String collection, boolean opensAwaitingCursor, long awaitingCursorId) {
+            this.collection = collection;
+            this.opensAwaitingCursor = opensAwaitingCursor;
+            this.awaitingCursorId = awaitingCursorId;
+        }
+
+        private boolean isAwaiting() {
+            return awaitingCursorId != 0;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Application metrics, and their management endpoints.
+ */
+package yuchi.springframework.config.metric;
@@ -3,13 +3,26 @@ package yuchi.springframework.domain;
 import java.io.Serializable;
 import java.time.LocalDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 /**
  * A Tasks.
+ * <p>
+ * Pages of tasks are ordered by {@code _id}, so the filtered fields follow {@code _id} in the indexes: the equality on
+ * {@code completed} comes first, then the sort, then the ranges on {@code due_date} and {@code name}, which are
+ * filtered on the index keys. Pages are then read in order, without sorting, and only the matching tasks are fetched.
  */
 @Document(collection = "tasks")
+@CompoundIndexes(
+    {
+        @CompoundIndex(name = "completed_id_due_date_name", def = "{'completed': 1, '_id': 1, 'due_date': 1, 'name': 1}"),
+        @CompoundIndex(name = "id_due_date_name", def = "{'_id': 1, 'due_date': 1, 'name': 1}")
+    }
+)
 public class Tasks implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -26,6 +39,10 @@ public class Tasks implements Serializable {
     @Field("completed")
     private Boolean completed;
 
+    @Version
+    @Field("version")
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
     public String getId() {
         return id;
@@ -79,6 +96,19 @@ public class Tasks implements Serializable {
         this.completed = completed;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Tasks version(Long version) {
+        this.version = version;
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -106,6 +136,7 @@ public class Tasks implements Serializable {
             ", name='" + getName() + "'" +
             ", dueDate='" + getDueDate() + "'" +
             ", completed='" + getCompleted() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
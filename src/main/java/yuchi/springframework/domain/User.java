@@ -30,7 +30,7 @@ public class User extends AbstractAuditingEntity implements Serializable {
     @NotNull
     @Pattern(regexp = Constants.LOGIN_REGEX)
     @Size(min = 1, max = 50)
-    @Indexed
+    @Indexed(unique = true)
     private String login;
 
     @JsonIgnore
@@ -48,7 +48,7 @@ public class User extends AbstractAuditingEntity implements Serializable {
 
     @Email
     @Size(min = 5, max = 254)
-    @Indexed
+    @Indexed(unique = true, sparse = true)
     private String email;
 
     private boolean activated = false;
@@ -122,8 +122,9 @@ public class User extends AbstractAuditingEntity implements Serializable {
         return email;
     }
 
+    // Lowercase the email before saving it in database
     public void setEmail(String email) {
-        this.email = email;
+        this.email = StringUtils.lowerCase(email, Locale.ENGLISH);
     }
 
     public String getImageUrl() {
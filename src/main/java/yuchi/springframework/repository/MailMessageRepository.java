@@ -0,0 +1,14 @@
+package yuchi.springframework.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import yuchi.springframework.domain.MailMessage;
+
+/**
+ * Spring Data MongoDB reactive repository for the {@link MailMessage} entity.
+ */
+@Repository
+public interface MailMessageRepository extends ReactiveMongoRepository<MailMessage, String> {
+    Flux<MailMessage> findAllByClaimToken(String claimToken);
+}
@@ -0,0 +1,80 @@
+package yuchi.springframework.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Optional filters applied when listing the Tasks entity, a {@code null} value means no filtering on that field.
+ */
+public class TasksFilter {
+
+    private Boolean completed;
+
+    private LocalDate dueDateFrom;
+
+    private LocalDate dueDateTo;
+
+    private String namePrefix;
+
+    public Boolean getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(Boolean completed) {
+        this.completed = completed;
+    }
+
+    public TasksFilter completed(Boolean completed) {
+        this.completed = completed;
+        return this;
+    }
+
+    public LocalDate getDueDateFrom() {
+        return dueDateFrom;
+    }
+
+    public void setDueDateFrom(LocalDate dueDateFrom) {
+        this.dueDateFrom = dueDateFrom;
+    }
+
+    public TasksFilter dueDateFrom(LocalDate dueDateFrom) {
+        this.dueDateFrom = dueDateFrom;
+        return this;
+    }
+
+    public LocalDate getDueDateTo() {
+        return dueDateTo;
+    }
+
+    public void setDueDateTo(LocalDate dueDateTo) {
+        this.dueDateTo = dueDateTo;
+    }
+
+    public TasksFilter dueDateTo(LocalDate dueDateTo) {
+        this.dueDateTo = dueDateTo;
+        return this;
+    }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    public void setNamePrefix(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
+
+    public TasksFilter namePrefix(String namePrefix) {
+        this.namePrefix = namePrefix;
+        return this;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TasksFilter{" +
+            "completed=" + completed +
+            ", dueDateFrom=" + dueDateFrom +
+            ", dueDateTo=" + dueDateTo +
+            ", namePrefix='" + namePrefix + "'" +
+            "}";
+    }
+}
@@ -9,4 +9,4 @@ import yuchi.springframework.domain.Tasks;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface TasksRepository extends ReactiveMongoRepository<Tasks, String> {}
+public interface TasksRepository extends ReactiveMongoRepository<Tasks, String>, TasksRepositoryCustom {}
@@ -0,0 +1,41 @@
+package yuchi.springframework.repository;
+
+import java.util.Collection;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yuchi.springframework.domain.Tasks;
+
+/**
+ * Queries on the Tasks entity which can't be expressed as Spring Data derived queries.
+ */
+public interface TasksRepositoryCustom {
+    /**
+     * Finds a page of the tasks matching the filter, seeking on the id.
+     *
+     * @param filter the filter the tasks must match.
+     * @param afterId the id the page starts after, or {@code null} for the first page.
+     * @param limit the page size.
+     * @return the tasks of the page, ordered by id.
+     */
+    Flux<Tasks> findAllByFilter(TasksFilter filter, String afterId, int limit);
+
+    /**
+     * Atomically updates all the fields of an existing tasks and increments its version, in a single round trip.
+     *
+     * @param tasks the tasks to update, identified by its id.
+     * @param expectedVersions the versions the tasks may have to be updated, or {@code null} to update any version.
+     * @return the updated tasks, an empty {@link Mono} if there is no tasks with this id,
+     * or an {@link org.springframework.dao.OptimisticLockingFailureException} if the version doesn't match.
+     */
+    Mono<Tasks> update(Tasks tasks, Collection<Long> expectedVersions);
+
+    /**
+     * Atomically updates the non-null fields of an existing tasks and increments its version, in a single round trip.
+     *
+     * @param tasks the tasks to update, identified by its id.
+     * @param expectedVersions the versions the tasks may have to be updated, or {@code null} to update any version.
+     * @return the updated tasks, an empty {@link Mono} if there is no tasks with this id,
+     * or an {@link org.springframework.dao.OptimisticLockingFailureException} if the version doesn't match.
+     */
+    Mono<Tasks> partialUpdate(Tasks tasks, Collection<Long> expectedVersions);
+}
@@ -0,0 +1,111 @@
+package yuchi.springframework.repository;
+
+import java.util.Collection;
+import java.util.regex.Pattern;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yuchi.springframework.domain.Tasks;
+
+/**
+ * {@link ReactiveMongoTemplate} based implementation of {@link TasksRepositoryCustom}.
+ */
+class TasksRepositoryCustomImpl implements TasksRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    TasksRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<Tasks> findAllByFilter(TasksFilter filter, String afterId, int limit) {
+        return mongoTemplate.find(createQuery(filter, afterId).limit(limit), Tasks.class);
+    }
+
+    @Override
+    public Mono<Tasks> update(Tasks tasks, Collection<Long> expectedVersions) {
+        Update update = new Update()
+            .set("name", tasks.getName())
+            .set("dueDate", tasks.getDueDate())
+            .set("completed", tasks.getCompleted());
+        return findAndModify(tasks.getId(), expectedVersions, update);
+    }
+
+    @Override
+    public Mono<Tasks> partialUpdate(Tasks tasks, Collection<Long> expectedVersions) {
+        Update update = new Update();
+        if (tasks.getName() != null) {
+            update.set("name", tasks.getName());
+        }
+        if (tasks.getDueDate() != null) {
+            update.set("dueDate", tasks.getDueDate());
+        }
+        if (tasks.getCompleted() != null) {
+            update.set("completed", tasks.getCompleted());
+        }
+        return findAndModify(tasks.getId(), expectedVersions, update);
+    }
+
+    private Mono<Tasks> findAndModify(String id, Collection<Long> expectedVersions, Update update) {
+        Query query = Query.query(Criteria.where("id").is(id));
+        if (expectedVersions != null) {
+            query.addCriteria(Criteria.where("version").in(expectedVersions));
+        }
+        Mono<Tasks> result = mongoTemplate.findAndModify(
+            query,
+            update.inc("version", 1),
+            FindAndModifyOptions.options().returnNew(true),
+            Tasks.class
+        );
+        if (expectedVersions == null) {
+            return result;
+        }
+        // Only probe for the existence of the tasks when the update didn't match, to tell a stale version from a missing tasks
+        return result.switchIfEmpty(
+            Mono.defer(() -> mongoTemplate.exists(Query.query(Criteria.where("id").is(id)), Tasks.class))
+                .flatMap(
+                    exists ->
+                        exists
+                            ? Mono.error(new OptimisticLockingFailureException("Tasks " + id + " is not at versions " + expectedVersions))
+                            : Mono.empty()
+                )
+        );
+    }
+
+    /**
+     * Creates the query matching the filter, ordered by id and starting after {@code afterId}.
+     * <p>
+     * Every criterion is backed by one of the indexes declared on {@link Tasks}.
+     */
+    static Query createQuery(TasksFilter filter, String afterId) {
+        Query query = new Query();
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("id").gt(afterId));
+        }
+        if (filter.getCompleted() != null) {
+            query.addCriteria(Criteria.where("completed").is(filter.getCompleted()));
+        }
+        if (filter.getDueDateFrom() != null || filter.getDueDateTo() != null) {
+            Criteria dueDate = Criteria.where("dueDate");
+            if (filter.getDueDateFrom() != null) {
+                dueDate.gte(filter.getDueDateFrom());
+            }
+            if (filter.getDueDateTo() != null) {
+                dueDate.lte(filter.getDueDateTo());
+            }
+            query.addCriteria(dueDate);
+        }
+        if (filter.getNamePrefix() != null) {
+            // An anchored regex is resolved as a range scan on the name index
+            query.addCriteria(Criteria.where("name").regex("^" + Pattern.quote(filter.getNamePrefix())));
+        }
+        return query.with(Sort.by(Sort.Direction.ASC, "id"));
+    }
+}
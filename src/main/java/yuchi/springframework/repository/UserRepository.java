@@ -1,6 +1,8 @@
 package yuchi.springframework.repository;
 
 import java.time.Instant;
+import java.util.Locale;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
@@ -19,13 +21,33 @@ public interface UserRepository extends ReactiveMongoRepository<User, String> {
 
     Mono<User> findOneByResetKey(String resetKey);
 
-    Mono<User> findOneByEmailIgnoreCase(String email);
+    Mono<User> findOneByEmail(String email);
+
+    /**
+     * Find a user by email, whatever its case.
+     * <p>
+     * Emails are stored in lowercase, so this is an exact match on the email index rather than a case-insensitive regex.
+     *
+     * @param email the email.
+     * @return the user, or an empty {@link Mono} if there is none.
+     */
+    default Mono<User> findOneByEmailNormalized(String email) {
+        return findOneByEmail(StringUtils.lowerCase(email, Locale.ENGLISH));
+    }
 
     Mono<User> findOneByLogin(String login);
 
+    Mono<Long> deleteByLoginAndActivatedIsFalse(String login);
+
+    Mono<Long> deleteByEmailAndActivatedIsFalse(String email);
+
     Flux<User> findAllByIdNotNull(Pageable pageable);
 
     Flux<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
 
+    Flux<User> findAllByLoginGreaterThan(String login, Pageable pageable);
+
+    Flux<User> findAllByLoginGreaterThanAndActivatedIsTrue(String login, Pageable pageable);
+
     Mono<Long> count();
 }
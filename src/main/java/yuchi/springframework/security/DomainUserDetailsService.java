@@ -1,50 +1,85 @@
 package yuchi.springframework.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 import org.hibernate.validator.internal.constraintvalidators.hv.EmailValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
+import yuchi.springframework.config.ApplicationProperties;
 import yuchi.springframework.domain.User;
 import yuchi.springframework.repository.UserRepository;
 
 /**
  * Authenticate a user from the database.
+ * <p>
+ * Users are cached for a short time by their lowercase login or email, and evicted through {@link #evictUser(String)}
+ * whenever they are written.
  */
 @Component("userDetailsService")
 public class DomainUserDetailsService implements ReactiveUserDetailsService {
 
     private final Logger log = LoggerFactory.getLogger(DomainUserDetailsService.class);
 
+    private final EmailValidator emailValidator = new EmailValidator();
+
     private final UserRepository userRepository;
 
-    public DomainUserDetailsService(UserRepository userRepository) {
+    private final Cache<String, UserDetails> userDetailsCache;
+
+    public DomainUserDetailsService(UserRepository userRepository, ApplicationProperties applicationProperties) {
         this.userRepository = userRepository;
+        ApplicationProperties.Cache.UserDetails properties = applicationProperties.getCache().getUserDetails();
+        this.userDetailsCache =
+            Caffeine
+                .newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(Duration.ofSeconds(properties.getTimeToLiveSeconds()))
+                .build();
     }
 
     @Override
     public Mono<UserDetails> findByUsername(final String login) {
         log.debug("Authenticating {}", login);
 
-        if (new EmailValidator().isValid(login, null)) {
-            return userRepository
-                .findOneByEmailIgnoreCase(login)
-                .switchIfEmpty(Mono.error(new UsernameNotFoundException("User with email " + login + " was not found in the database")))
-                .map(user -> createSpringSecurityUser(login, user));
+        String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
+        UserDetails cachedUserDetails = userDetailsCache.getIfPresent(lowercaseLogin);
+        if (cachedUserDetails != null) {
+            return Mono.just(copy(cachedUserDetails));
         }
 
-        String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
-        return userRepository
-            .findOneByLogin(lowercaseLogin)
-            .switchIfEmpty(Mono.error(new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database")))
-            .map(user -> createSpringSecurityUser(lowercaseLogin, user));
+        Mono<UserDetails> userDetails;
+        if (emailValidator.isValid(login, null)) {
+            userDetails =
+                userRepository
+                    .findOneByEmail(lowercaseLogin)
+                    .switchIfEmpty(Mono.error(new UsernameNotFoundException("User with email " + login + " was not found in the database")))
+                    .map(user -> createSpringSecurityUser(login, user));
+        } else {
+            userDetails =
+                userRepository
+                    .findOneByLogin(lowercaseLogin)
+                    .switchIfEmpty(Mono.error(new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database")))
+                    .map(user -> createSpringSecurityUser(lowercaseLogin, user));
+        }
+        return userDetails.doOnNext(user -> userDetailsCache.put(lowercaseLogin, user)).map(this::copy);
+    }
+
+    /**
+     * Evict a user from the cache, whether it was cached by login or by email.
+     *
+     * @param login the login of the user.
+     */
+    public void evictUser(String login) {
+        userDetailsCache.asMap().values().removeIf(userDetails -> userDetails.getUsername().equals(login));
     }
 
     private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, User user) {
@@ -54,8 +89,15 @@ public class DomainUserDetailsService implements ReactiveUserDetailsService {
         List<GrantedAuthority> grantedAuthorities = user
             .getAuthorities()
             .stream()
-            .map(authority -> new SimpleGrantedAuthority(authority.getName()))
+            .map(authority -> GrantedAuthorities.of(authority.getName()))
             .collect(Collectors.toList());
         return new org.springframework.security.core.userdetails.User(user.getLogin(), user.getPassword(), grantedAuthorities);
     }
+
+    /**
+     * Copy cached user details, so that erasing the credentials of an authentication doesn't alter the cache.
+     */
+    private UserDetails copy(UserDetails userDetails) {
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails).build();
+    }
 }
@@ -0,0 +1,29 @@
+package yuchi.springframework.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Interned {@link GrantedAuthority} instances.
+ * <p>
+ * There are only a handful of authorities, so one instance of each is shared, instead of allocating new ones on every
+ * authentication.
+ */
+public final class GrantedAuthorities {
+
+    private static final Map<String, GrantedAuthority> AUTHORITIES = new ConcurrentHashMap<>();
+
+    private GrantedAuthorities() {}
+
+    /**
+     * Get the granted authority of the given name.
+     *
+     * @param authority the authority name.
+     * @return the shared granted authority.
+     */
+    public static GrantedAuthority of(String authority) {
+        return AUTHORITIES.computeIfAbsent(authority, SimpleGrantedAuthority::new);
+    }
+}
@@ -0,0 +1,60 @@
+package yuchi.springframework.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import yuchi.springframework.config.ApplicationProperties;
+
+/**
+ * Scheduler dedicated to password hashing.
+ * <p>
+ * BCrypt is CPU bound, so it runs on one thread per CPU, and waits in a bounded queue. When the queue is full, hashing
+ * is rejected right away with a {@link java.util.concurrent.RejectedExecutionException}, rather than queuing up and
+ * starving the other requests.
+ * <p>
+ * The queue depth and the hashing latency are published under the {@code executor} meters, tagged with
+ * {@code name=password.hashing}.
+ */
+@Component
+public class PasswordHashingScheduler implements DisposableBean {
+
+    private static final String NAME = "password.hashing";
+
+    private final ExecutorService executor;
+
+    private final Scheduler scheduler;
+
+    public PasswordHashingScheduler(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(applicationProperties.getSecurity().getPasswordHashing().getQueueCapacity()),
+            new CustomizableThreadFactory("password-hashing-"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, threadPoolExecutor, NAME, Collections.emptyList());
+        this.scheduler = Schedulers.fromExecutorService(executor, NAME);
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+        executor.shutdown();
+    }
+}
@@ -1,23 +1,30 @@
 package yuchi.springframework.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.jackson.io.JacksonSerializer;
 import io.jsonwebtoken.security.Keys;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
 import tech.jhipster.config.JHipsterProperties;
+import yuchi.springframework.security.GrantedAuthorities;
 
 @Component
 public class TokenProvider {
@@ -26,6 +33,8 @@ public class TokenProvider {
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    private static final int AUTHENTICATION_CACHE_SIZE = 10000;
+
     private final Key key;
 
     private final JwtParser jwtParser;
@@ -34,6 +43,15 @@ public class TokenProvider {
 
     private final long tokenValidityInMillisecondsForRememberMe;
 
+    /**
+     * The tokens already verified, keyed by the SHA-256 digest of the token, and expiring with it.
+     */
+    private final Cache<ByteBuffer, VerifiedToken> authenticationCache = Caffeine
+        .newBuilder()
+        .maximumSize(AUTHENTICATION_CACHE_SIZE)
+        .expireAfter(new VerifiedTokenExpiry())
+        .build();
+
     public TokenProvider(JHipsterProperties jHipsterProperties) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getSecret();
@@ -77,16 +95,57 @@ public class TokenProvider {
 
     public Authentication getAuthentication(String token) {
         Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        return new VerifiedToken(claims.getSubject(), getAuthorities(claims), null).toAuthentication(token);
+    }
 
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
+    /**
+     * Validate a token and get its authentication, verifying the signature of each token only once while it is valid.
+     * <p>
+     * Only the principal name and the authorities of a verified token are cached: each call gets a new authentication,
+     * as an authentication is mutable and belongs to the security context of a single request.
+     *
+     * @param token the token.
+     * @return the authentication of the token, or {@code null} if the token is not valid.
+     */
+    public Authentication resolveAuthentication(String token) {
+        ByteBuffer digest = digest(token);
+        VerifiedToken verifiedToken = authenticationCache.getIfPresent(digest);
+        if (verifiedToken == null) {
+            verifiedToken = verifyToken(token);
+            if (verifiedToken == null) {
+                return null;
+            }
+            if (verifiedToken.expirationTime != null) {
+                authenticationCache.put(digest, verifiedToken);
+            }
+        }
+        return verifiedToken.toAuthentication(token);
+    }
 
-        User principal = new User(claims.getSubject(), "", authorities);
+    /**
+     * Validate a token and get its principal name and authorities, parsing the token once.
+     *
+     * @param token the token.
+     * @return the verified token, or {@code null} if the token is not valid.
+     */
+    VerifiedToken verifyToken(String token) {
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            Date expiration = claims.getExpiration();
+            return new VerifiedToken(claims.getSubject(), getAuthorities(claims), expiration != null ? expiration.getTime() : null);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.info("Invalid JWT token.");
+            log.trace("Invalid JWT token trace.", e);
+        }
+        return null;
+    }
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    private static List<GrantedAuthority> getAuthorities(Claims claims) {
+        return Arrays
+            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
+            .filter(auth -> !auth.trim().isEmpty())
+            .map(GrantedAuthorities::of)
+            .collect(Collectors.toUnmodifiableList());
     }
 
     public boolean validateToken(String authToken) {
@@ -99,4 +158,50 @@ public class TokenProvider {
         }
         return false;
     }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static final class VerifiedToken {
+
+        private final String subject;
+
+        private final List<GrantedAuthority> authorities;
+
+        private final Long expirationTime;
+
+        private VerifiedToken(String subject, List<GrantedAuthority> authorities, Long expirationTime) {
+            this.subject = subject;
+            this.authorities = authorities;
+            this.expirationTime = expirationTime;
+        }
+
+        private Authentication toAuthentication(String token) {
+            User principal = new User(subject, "", authorities);
+            return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        }
+    }
+
+    private static final class VerifiedTokenExpiry implements Expiry<ByteBuffer, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedToken value, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expirationTime - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,98 @@
+package yuchi.springframework.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yuchi.springframework.domain.Authority;
+import yuchi.springframework.repository.AuthorityRepository;
+
+/**
+ * In-memory registry of the authorities.
+ * <p>
+ * The authorities are a tiny set, only written by the database migrations, which Mongock runs once the context is
+ * started, so they are loaded when the application is ready instead of being looked up on each request. Until then, and
+ * as long as none could be loaded, they are loaded on each use: neither an empty set nor a failure is kept.
+ */
+@Service
+public class AuthorityRegistry {
+
+    private final Logger log = LoggerFactory.getLogger(AuthorityRegistry.class);
+
+    private final AuthorityRepository authorityRepository;
+
+    private volatile Map<String, Authority> authorities;
+
+    public AuthorityRegistry(AuthorityRepository authorityRepository) {
+        this.authorityRepository = authorityRepository;
+    }
+
+    /**
+     * Reload the authorities once the migrations have run, keeping the current ones until the new ones are loaded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        loadAuthorities()
+            .subscribe(loaded -> log.debug("Loaded authorities: {}", loaded.keySet()), e -> log.warn("Could not load authorities", e));
+    }
+
+    /**
+     * Get all the authorities.
+     *
+     * @return the authorities.
+     */
+    public Flux<Authority> findAll() {
+        return authorities().flatMapIterable(Map::values);
+    }
+
+    /**
+     * Get the authorities of the given names, skipping the unknown ones.
+     *
+     * @param names the names of the authorities.
+     * @return the authorities.
+     */
+    public Flux<Authority> findAllByName(Collection<String> names) {
+        return authorities()
+            .flatMapIterable(loaded -> names.stream().map(loaded::get).filter(Objects::nonNull).collect(Collectors.toList()));
+    }
+
+    /**
+     * Get the authority of the given name.
+     *
+     * @param name the name of the authority.
+     * @return the authority, or an empty {@link Mono} if it is unknown.
+     */
+    public Mono<Authority> findByName(String name) {
+        return authorities().flatMap(loaded -> Mono.justOrEmpty(loaded.get(name)));
+    }
+
+    private Mono<Map<String, Authority>> authorities() {
+        Map<String, Authority> loaded = authorities;
+        return loaded != null ? Mono.just(loaded) : loadAuthorities();
+    }
+
+    private Mono<Map<String, Authority>> loadAuthorities() {
+        return authorityRepository
+            .findAll()
+            .collectMap(Authority::getName, Function.identity(), LinkedHashMap::new)
+            .map(Collections::unmodifiableMap)
+            .doOnNext(
+                loaded -> {
+                    // Before the migrations, the authorities may not be seeded yet
+                    if (!loaded.isEmpty()) {
+                        authorities = loaded;
+                    }
+                }
+            );
+    }
+}
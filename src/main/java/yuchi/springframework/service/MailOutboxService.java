@@ -0,0 +1,290 @@
+package yuchi.springframework.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import tech.jhipster.config.JHipsterProperties;
+import yuchi.springframework.config.ApplicationProperties;
+import yuchi.springframework.domain.MailMessage;
+import yuchi.springframework.repository.MailMessageRepository;
+
+/**
+ * Service sending the emails queued in the outbox by {@link MailService}.
+ * <p>
+ * A worker claims the due messages in batches, by stamping them with a claim token and a lock, and sends each batch
+ * over a single SMTP connection on its own thread, so that slow mail servers don't hold up other asynchronous work.
+ * Sent messages are removed from the outbox, the others are retried with an exponential backoff until they exhaust
+ * their attempts. Messages claimed by a worker which crashed are claimed again once their lock expires.
+ */
+@Service
+public class MailOutboxService {
+
+    private static final int MAX_QUEUED_TASKS = 100;
+
+    private final Logger log = LoggerFactory.getLogger(MailOutboxService.class);
+
+    private final MailMessageRepository mailMessageRepository;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    private final JavaMailSender javaMailSender;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final ApplicationProperties.MailOutbox properties;
+
+    private final Counter sentCounter;
+
+    private final Counter failedCounter;
+
+    private final Sinks.Many<Boolean> wakeUps = Sinks.many().multicast().directBestEffort();
+
+    private Scheduler scheduler;
+
+    private Disposable worker;
+
+    public MailOutboxService(
+        MailMessageRepository mailMessageRepository,
+        ReactiveMongoTemplate mongoTemplate,
+        JavaMailSender javaMailSender,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.mailMessageRepository = mailMessageRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.javaMailSender = javaMailSender;
+        this.jHipsterProperties = jHipsterProperties;
+        this.properties = applicationProperties.getMailOutbox();
+        this.sentCounter = Counter.builder("mail.outbox.sent").description("Emails sent from the outbox").register(meterRegistry);
+        this.failedCounter = Counter.builder("mail.outbox.failed").description("Failed attempts to send an email").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        // A single thread allowed to block on SMTP, the batches being sent one after the other
+        scheduler = Schedulers.newBoundedElastic(1, MAX_QUEUED_TASKS, "mail-outbox");
+        if (!properties.isEnabled()) {
+            return;
+        }
+        worker =
+            Flux
+                .merge(Flux.interval(Duration.ZERO, Duration.ofSeconds(properties.getPollIntervalSeconds()), scheduler), wakeUps.asFlux())
+                .onBackpressureDrop()
+                .concatMap(
+                    tick ->
+                        sendPendingMessages()
+                            .onErrorResume(
+                                e -> {
+                                    log.warn("Could not send the emails of the outbox", e);
+                                    return Mono.empty();
+                                }
+                            ),
+                    1
+                )
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.dispose();
+        }
+        scheduler.dispose();
+    }
+
+    /**
+     * Signals that a message was queued, so that it is sent without waiting for the next poll.
+     */
+    public void wakeUp() {
+        wakeUps.tryEmitNext(Boolean.TRUE);
+    }
+
+    /**
+     * Sends the due messages of the outbox, batch after batch, until none is left.
+     *
+     * @return a {@link Mono} completing when the outbox is drained.
+     */
+    public Mono<Void> sendPendingMessages() {
+        return sendBatch().repeat().takeWhile(claimed -> claimed > 0).then();
+    }
+
+    /**
+     * Claims and sends one batch of due messages.
+     *
+     * @return the number of due messages found, some of which may have been claimed by another worker.
+     */
+    Mono<Integer> sendBatch() {
+        return Mono.defer(
+            () -> {
+                Instant now = Instant.now();
+                String claimToken = UUID.randomUUID().toString();
+                Query due = Query
+                    .query(dueCriteria(now))
+                    .with(Sort.by("nextAttemptDate"))
+                    .limit(properties.getBatchSize());
+                due.fields().include("id");
+                return mongoTemplate
+                    .find(due, MailMessage.class)
+                    .map(MailMessage::getId)
+                    .collectList()
+                    .filter(ids -> !ids.isEmpty())
+                    .flatMap(
+                        ids -> {
+                            // Only the messages still due are claimed, the others were claimed by another worker in between
+                            Query claim = Query.query(new Criteria().andOperator(Criteria.where("id").in(ids), dueCriteria(now)));
+                            Update lock = Update
+                                .update("claimToken", claimToken)
+                                .set("lockedUntil", now.plusSeconds(properties.getLeaseSeconds()));
+                            return mongoTemplate.updateMulti(claim, lock, MailMessage.class).then(send(claimToken)).thenReturn(ids.size());
+                        }
+                    )
+                    .defaultIfEmpty(0);
+            }
+        );
+    }
+
+    private static Criteria dueCriteria(Instant now) {
+        return Criteria
+            .where("nextAttemptDate")
+            .lte(now)
+            .orOperator(Criteria.where("lockedUntil").is(null), Criteria.where("lockedUntil").lt(now));
+    }
+
+    private Mono<Void> send(String claimToken) {
+        return mailMessageRepository
+            .findAllByClaimToken(claimToken)
+            .collectList()
+            .filter(messages -> !messages.isEmpty())
+            .flatMap(
+                messages ->
+                    Mono
+                        .fromCallable(() -> transmit(messages))
+                        .subscribeOn(scheduler)
+                        .flatMap(failures -> complete(messages, failures, claimToken))
+            );
+    }
+
+    /**
+     * Sends the messages over a single connection.
+     *
+     * @return the failures, by message id.
+     */
+    private Map<String, Exception> transmit(List<MailMessage> messages) {
+        Map<String, Exception> failures = new HashMap<>();
+        Map<MimeMessage, MailMessage> mimeMessages = new LinkedHashMap<>();
+        for (MailMessage message : messages) {
+            try {
+                mimeMessages.put(createMimeMessage(message), message);
+            } catch (MessagingException e) {
+                failures.put(message.getId(), e);
+            }
+        }
+        if (mimeMessages.isEmpty()) {
+            return failures;
+        }
+        try {
+            javaMailSender.send(mimeMessages.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                mimeMessages.values().forEach(message -> failures.put(message.getId(), e));
+            }
+            e.getFailedMessages().forEach((mimeMessage, cause) -> failures.put(mimeMessages.get(mimeMessage).getId(), cause));
+        } catch (MailException e) {
+            mimeMessages.values().forEach(message -> failures.put(message.getId(), e));
+        }
+        return failures;
+    }
+
+    private Mono<Void> complete(List<MailMessage> messages, Map<String, Exception> failures, String claimToken) {
+        List<String> sentIds = messages
+            .stream()
+            .map(MailMessage::getId)
+            .filter(id -> !failures.containsKey(id))
+            .collect(Collectors.toList());
+        sentCounter.increment(sentIds.size());
+        failedCounter.increment(failures.size());
+        log.debug("Sent {} emails of the outbox, {} failed", sentIds.size(), failures.size());
+        Mono<Void> removeSent = sentIds.isEmpty()
+            ? Mono.empty()
+            : mongoTemplate.remove(Query.query(Criteria.where("id").in(sentIds)), MailMessage.class).then();
+        return removeSent.then(
+            Flux
+                .fromIterable(messages)
+                .filter(message -> failures.containsKey(message.getId()))
+                .concatMap(message -> reschedule(message, failures.get(message.getId()), claimToken))
+                .then()
+        );
+    }
+
+    private Mono<Void> reschedule(MailMessage message, Exception cause, String claimToken) {
+        int attempts = message.getAttempts() + 1;
+        Update update = new Update()
+            .set("attempts", attempts)
+            .set("lastError", String.valueOf(cause.getMessage()))
+            .unset("claimToken")
+            .unset("lockedUntil");
+        if (attempts >= properties.getMaxAttempts()) {
+            log.error("Email could not be sent to user '{}' after {} attempts", message.getTo(), attempts, cause);
+            update.unset("nextAttemptDate");
+        } else {
+            log.warn("Email could not be sent to user '{}', attempt {}", message.getTo(), attempts, cause);
+            update.set("nextAttemptDate", Instant.now().plus(backoff(attempts)));
+        }
+        Query claimed = Query.query(Criteria.where("id").is(message.getId()).and("claimToken").is(claimToken));
+        return mongoTemplate.updateFirst(claimed, update, MailMessage.class).then();
+    }
+
+    private Duration backoff(int attempts) {
+        Duration backoff = Duration.ofSeconds(properties.getInitialBackoffSeconds()).multipliedBy(1L << Math.min(attempts - 1, 20));
+        Duration maxBackoff = Duration.ofSeconds(properties.getMaxBackoffSeconds());
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    /**
+     * Prepares the MIME message of a message of the outbox.
+     *
+     * @param message the message of the outbox.
+     * @return the MIME message.
+     * @throws MessagingException if the message can't be prepared.
+     */
+    public MimeMessage createMimeMessage(MailMessage message) throws MessagingException {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, message.isMultipart(), StandardCharsets.UTF_8.name());
+        helper.setTo(message.getTo());
+        helper.setFrom(jHipsterProperties.getMail().getFrom());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getContent(), message.isHtml());
+        return mimeMessage;
+    }
+}
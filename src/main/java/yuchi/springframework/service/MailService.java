@@ -1,60 +1,69 @@
 package yuchi.springframework.service;
 
-import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Locale;
-import javax.mail.MessagingException;
-import javax.mail.internet.MimeMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.MessageSource;
-import org.springframework.mail.MailException;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring5.SpringTemplateEngine;
-import tech.jhipster.config.JHipsterProperties;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import yuchi.springframework.config.Constants;
+import yuchi.springframework.domain.MailMessage;
 import yuchi.springframework.domain.User;
+import yuchi.springframework.repository.MailMessageRepository;
 
 /**
  * Service for sending emails.
  * <p>
- * We use the {@link Async} annotation to send emails asynchronously.
+ * Emails are queued in the outbox, and sent by the {@link MailOutboxService}, so that they survive a restart and are
+ * retried when the mail server is unavailable.
  */
 @Service
 public class MailService {
 
     private final Logger log = LoggerFactory.getLogger(MailService.class);
 
-    private static final String USER = "user";
+    private static final String ACTIVATION_TEMPLATE = "mail/activationEmail";
 
-    private static final String BASE_URL = "baseUrl";
+    private static final String CREATION_TEMPLATE = "mail/creationEmail";
 
-    private final JHipsterProperties jHipsterProperties;
+    private static final String PASSWORD_RESET_TEMPLATE = "mail/passwordResetEmail";
 
-    private final JavaMailSender javaMailSender;
+    private final MailTemplateRenderer mailTemplateRenderer;
 
-    private final MessageSource messageSource;
+    private final MailMessageRepository mailMessageRepository;
 
-    private final SpringTemplateEngine templateEngine;
+    private final MailOutboxService mailOutboxService;
 
     public MailService(
-        JHipsterProperties jHipsterProperties,
-        JavaMailSender javaMailSender,
-        MessageSource messageSource,
-        SpringTemplateEngine templateEngine
+        MailTemplateRenderer mailTemplateRenderer,
+        MailMessageRepository mailMessageRepository,
+        MailOutboxService mailOutboxService
     ) {
-        this.jHipsterProperties = jHipsterProperties;
-        this.javaMailSender = javaMailSender;
-        this.messageSource = messageSource;
-        this.templateEngine = templateEngine;
+        this.mailTemplateRenderer = mailTemplateRenderer;
+        this.mailMessageRepository = mailMessageRepository;
+        this.mailOutboxService = mailOutboxService;
     }
 
-    @Async
-    public void sendEmail(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
+    /**
+     * Parses the templates of the default language at startup, rather than on their first email.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void precompileTemplates() {
+        Locale locale = Locale.forLanguageTag(Constants.DEFAULT_LANGUAGE);
+        Flux
+            .fromIterable(List.of(ACTIVATION_TEMPLATE, CREATION_TEMPLATE, PASSWORD_RESET_TEMPLATE))
+            .doOnNext(templateName -> mailTemplateRenderer.precompile(templateName, locale))
+            .subscribeOn(Schedulers.boundedElastic())
+            .subscribe(null, e -> log.warn("Could not precompile the email templates", e));
+    }
+
+    public Mono<Void> sendEmail(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
         log.debug(
-            "Send email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
+            "Queue email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
             isMultipart,
             isHtml,
             to,
@@ -62,51 +71,45 @@ public class MailService {
             content
         );
 
-        // Prepare message using a Spring helper
-        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
-        try {
-            MimeMessageHelper message = new MimeMessageHelper(mimeMessage, isMultipart, StandardCharsets.UTF_8.name());
-            message.setTo(to);
-            message.setFrom(jHipsterProperties.getMail().getFrom());
-            message.setSubject(subject);
-            message.setText(content, isHtml);
-            javaMailSender.send(mimeMessage);
-            log.debug("Sent email to User '{}'", to);
-        } catch (MailException | MessagingException e) {
-            log.warn("Email could not be sent to user '{}'", to, e);
-        }
+        MailMessage message = new MailMessage();
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setContent(content);
+        message.setMultipart(isMultipart);
+        message.setHtml(isHtml);
+        message.setNextAttemptDate(message.getCreatedDate());
+        return mailMessageRepository
+            .insert(message)
+            .doOnNext(queued -> log.debug("Queued email to User '{}'", to))
+            .doOnNext(queued -> mailOutboxService.wakeUp())
+            .then();
     }
 
-    @Async
-    public void sendEmailFromTemplate(User user, String templateName, String titleKey) {
+    public Mono<Void> sendEmailFromTemplate(User user, String templateName, String titleKey) {
         if (user.getEmail() == null) {
             log.debug("Email doesn't exist for user '{}'", user.getLogin());
-            return;
+            return Mono.empty();
         }
         Locale locale = Locale.forLanguageTag(user.getLangKey());
-        Context context = new Context(locale);
-        context.setVariable(USER, user);
-        context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
-        String content = templateEngine.process(templateName, context);
-        String subject = messageSource.getMessage(titleKey, null, locale);
-        sendEmail(user.getEmail(), subject, content, false, true);
+        // Templates are read from the classpath on their first email
+        return Mono
+            .fromCallable(() -> mailTemplateRenderer.render(user, templateName, locale))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(content -> sendEmail(user.getEmail(), mailTemplateRenderer.getSubject(titleKey, locale), content, false, true));
     }
 
-    @Async
-    public void sendActivationEmail(User user) {
+    public Mono<Void> sendActivationEmail(User user) {
         log.debug("Sending activation email to '{}'", user.getEmail());
-        sendEmailFromTemplate(user, "mail/activationEmail", "email.activation.title");
+        return sendEmailFromTemplate(user, ACTIVATION_TEMPLATE, "email.activation.title");
     }
 
-    @Async
-    public void sendCreationEmail(User user) {
+    public Mono<Void> sendCreationEmail(User user) {
         log.debug("Sending creation email to '{}'", user.getEmail());
-        sendEmailFromTemplate(user, "mail/creationEmail", "email.activation.title");
+        return sendEmailFromTemplate(user, CREATION_TEMPLATE, "email.activation.title");
     }
 
-    @Async
-    public void sendPasswordResetMail(User user) {
+    public Mono<Void> sendPasswordResetMail(User user) {
         log.debug("Sending password reset email to '{}'", user.getEmail());
-        sendEmailFromTemplate(user, "mail/passwordResetEmail", "email.reset.title");
+        return sendEmailFromTemplate(user, PASSWORD_RESET_TEMPLATE, "email.reset.title");
     }
 }
@@ -0,0 +1,238 @@
+package yuchi.springframework.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.unbescape.html.HtmlEscape;
+import org.unbescape.html.HtmlEscapeLevel;
+import org.unbescape.html.HtmlEscapeType;
+import tech.jhipster.config.JHipsterProperties;
+import yuchi.springframework.domain.User;
+
+/**
+ * Service rendering the email templates.
+ * <p>
+ * Templates opted in with {@link #precompile(String, Locale)} are rendered once per locale, and per set of null
+ * properties of the user, for a placeholder user whose other properties are markers. The rendered text is split around
+ * the markers, so that an email is then rendered by concatenating the static parts with the escaped properties of its
+ * user. This is only correct when the template prints the string properties of the user or tests them for null, and
+ * nothing else: a comparison like {@code user.langKey == 'fr'}, a test like {@code #strings.isEmpty(user.firstName)}
+ * or a computed value like {@code #strings.abbreviate(user.login, 10)} would be frozen with the value of the
+ * placeholder. As a safety net, a template is still rejected when two placeholder users with markers of different
+ * lengths don't give the same static parts, but this can't catch every expression, so only the templates known to
+ * follow the rule are opted in. The other templates, and all templates when the Thymeleaf cache is disabled, are
+ * processed by the template engine for each email.
+ */
+@Service
+public class MailTemplateRenderer {
+
+    private static final String USER = "user";
+
+    private static final String BASE_URL = "baseUrl";
+
+    private static final List<Function<User, String>> GETTERS = List.of(
+        User::getLogin,
+        User::getFirstName,
+        User::getLastName,
+        User::getEmail,
+        User::getImageUrl,
+        User::getLangKey,
+        User::getActivationKey,
+        User::getResetKey
+    );
+
+    private static final List<BiConsumer<User, String>> SETTERS = List.of(
+        User::setLogin,
+        User::setFirstName,
+        User::setLastName,
+        User::setEmail,
+        User::setImageUrl,
+        User::setLangKey,
+        User::setActivationKey,
+        User::setResetKey
+    );
+
+    // Lowercase alphanumeric, so that markers are left untouched by escaping, links and User#setEmail
+    private static final Pattern MARKER = Pattern.compile("jhmarkera(\\d+)z");
+
+    private final Logger log = LoggerFactory.getLogger(MailTemplateRenderer.class);
+
+    private final SpringTemplateEngine templateEngine;
+
+    private final MessageSource messageSource;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final boolean cacheEnabled;
+
+    private final Set<String> cacheableTemplates = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, CompiledTemplate> templates = new ConcurrentHashMap<>();
+
+    private final Map<String, String> subjects = new ConcurrentHashMap<>();
+
+    public MailTemplateRenderer(
+        SpringTemplateEngine templateEngine,
+        MessageSource messageSource,
+        JHipsterProperties jHipsterProperties,
+        ThymeleafProperties thymeleafProperties
+    ) {
+        this.templateEngine = templateEngine;
+        this.messageSource = messageSource;
+        this.jHipsterProperties = jHipsterProperties;
+        this.cacheEnabled = thymeleafProperties.isCache();
+    }
+
+    /**
+     * Renders a template for a user.
+     *
+     * @param user the user.
+     * @param templateName the name of the template.
+     * @param locale the locale of the email.
+     * @return the content of the email.
+     */
+    public String render(User user, String templateName, Locale locale) {
+        if (!cacheEnabled || !cacheableTemplates.contains(templateName)) {
+            return process(user, templateName, locale);
+        }
+        CompiledTemplate template = compile(templateName, locale, nullProperties(user));
+        return template == null ? process(user, templateName, locale) : template.render(user);
+    }
+
+    /**
+     * Gets the subject of an email.
+     *
+     * @param titleKey the message key of the subject.
+     * @param locale the locale of the email.
+     * @return the subject.
+     */
+    public String getSubject(String titleKey, Locale locale) {
+        if (!cacheEnabled) {
+            return messageSource.getMessage(titleKey, null, locale);
+        }
+        return subjects.computeIfAbsent(titleKey + '|' + locale.toLanguageTag(), key -> messageSource.getMessage(titleKey, null, locale));
+    }
+
+    /**
+     * Opts a template in to caching, and parses and splits it ahead of its first email, for users with all their
+     * properties set. The template must only print the string properties of the user or test them for null.
+     *
+     * @param templateName the name of the template.
+     * @param locale the locale of the emails.
+     */
+    public void precompile(String templateName, Locale locale) {
+        if (cacheEnabled) {
+            cacheableTemplates.add(templateName);
+            compile(templateName, locale, 0);
+        }
+    }
+
+    private CompiledTemplate compile(String templateName, Locale locale, int nullProperties) {
+        String key = templateName + '|' + locale.toLanguageTag() + '|' + nullProperties;
+        CompiledTemplate template = templates.computeIfAbsent(key, k -> split(templateName, locale, nullProperties));
+        return template.isCacheable() ? template : null;
+    }
+
+    private CompiledTemplate split(String templateName, Locale locale, int nullProperties) {
+        String renderedA = process(placeholderUser("a", nullProperties), templateName, locale);
+        String renderedB = process(placeholderUser("bb", nullProperties), templateName, locale);
+        List<String> parts = new ArrayList<>();
+        List<Integer> properties = new ArrayList<>();
+        Matcher matcher = MARKER.matcher(renderedA);
+        int start = 0;
+        while (matcher.find()) {
+            parts.add(renderedA.substring(start, matcher.start()));
+            properties.add(Integer.parseInt(matcher.group(1)));
+            start = matcher.end();
+        }
+        parts.add(renderedA.substring(start));
+        CompiledTemplate template = new CompiledTemplate(parts, properties);
+        // Markers need no escaping, so the other placeholder user is rendered identically if the template only prints them,
+        // and their lengths differ so that lengths, abbreviations and the like are told apart
+        if (!template.render(placeholderUser("bb", nullProperties)).equals(renderedB)) {
+            log.debug("Template '{}' depends on more than the printed properties of the user, it won't be cached", templateName);
+            return CompiledTemplate.NOT_CACHEABLE;
+        }
+        return template;
+    }
+
+    private String process(User user, String templateName, Locale locale) {
+        Context context = new Context(locale);
+        context.setVariable(USER, user);
+        context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
+        return templateEngine.process(templateName, context);
+    }
+
+    private static int nullProperties(User user) {
+        int nullProperties = 0;
+        for (int i = 0; i < GETTERS.size(); i++) {
+            if (GETTERS.get(i).apply(user) == null) {
+                nullProperties |= 1 << i;
+            }
+        }
+        return nullProperties;
+    }
+
+    private static User placeholderUser(String variant, int nullProperties) {
+        User user = new User();
+        for (int i = 0; i < SETTERS.size(); i++) {
+            if ((nullProperties & (1 << i)) == 0) {
+                SETTERS.get(i).accept(user, "jhmarker" + variant + i + "z");
+            }
+        }
+        return user;
+    }
+
+    private static final class CompiledTemplate {
+
+        private static final CompiledTemplate NOT_CACHEABLE = new CompiledTemplate(null, null);
+
+        private final List<String> parts;
+
+        private final List<Integer> properties;
+
+        private CompiledTemplate(List<String> parts, List<Integer> properties) {
+            this.parts = parts;
+            this.properties = properties;
+        }
+
+        private boolean isCacheable() {
+            return parts != null;
+        }
+
+        private String render(User user) {
+            StringBuilder builder = new StringBuilder(parts.get(0));
+            for (int i = 0; i < properties.size(); i++) {
+                String value = GETTERS.get(properties.get(i)).apply(user);
+                if (value != null) {
+                    builder.append(escape(value));
+                }
+                builder.append(parts.get(i + 1));
+            }
+            return builder.toString();
+        }
+
+        private static String escape(String value) {
+            // The escaping of th:text and of the attributes
+            return HtmlEscape.escapeHtml(
+                value,
+                HtmlEscapeType.HTML4_NAMED_REFERENCES_DEFAULT_TO_DECIMAL,
+                HtmlEscapeLevel.LEVEL_1_ONLY_MARKUP_SIGNIFICANT
+            );
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package yuchi.springframework.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.WriteModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yuchi.springframework.domain.Tasks;
+import yuchi.springframework.service.dto.TasksBulkOperation;
+import yuchi.springframework.service.dto.TasksBulkResult;
+
+/**
+ * Service applying the {@link TasksBulkOperation}s of a bulk request to the tasks collection.
+ * <p>
+ * Each chunk of operations is applied in one unordered bulk write of the Mongo driver, as the repository only writes
+ * one tasks per round trip.
+ */
+@Service
+public class TasksBulkService {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public TasksBulkService(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Applies the operations in one unordered bulk write.
+     * <p>
+     * Operations are independent: an invalid or failing operation doesn't prevent the others from being applied. An
+     * update only replaces the tasks at the version read before the bulk write, and is reported as a conflict otherwise.
+     * As all the operations read the versions at once, only the first operation on a tasks is applied, and the others
+     * fail with {@code idduplicate}.
+     *
+     * @param operations the operations to apply.
+     * @return the result of each operation, in the order of the operations.
+     */
+    public Flux<TasksBulkResult> bulkWrite(List<TasksBulkOperation> operations) {
+        List<TasksBulkResult> results = new ArrayList<>(operations.size());
+        Set<String> ids = new HashSet<>();
+        for (TasksBulkOperation operation : operations) {
+            TasksBulkResult result = new TasksBulkResult().action(operation.getAction());
+            results.add(result);
+            String error = validate(operation);
+            if (error != null) {
+                result.failed(error);
+            } else if (operation.getAction() != TasksBulkOperation.Action.CREATE) {
+                String id = operation.getAction() == TasksBulkOperation.Action.DELETE ? operation.getId() : operation.getTasks().getId();
+                result.id(id);
+                if (!ids.add(id)) {
+                    result.failed("idduplicate");
+                }
+            }
+        }
+        return findVersions(ids)
+            .flatMap(versions -> executeBulkWrite(operations, results, versions))
+            .thenMany(Flux.fromIterable(results));
+    }
+
+    private static String validate(TasksBulkOperation operation) {
+        if (operation.getAction() == null) {
+            return "actioninvalid";
+        }
+        if (operation.getAction() == TasksBulkOperation.Action.DELETE) {
+            return operation.getId() == null ? "idnull" : null;
+        }
+        if (operation.getTasks() == null) {
+            return "tasksnull";
+        }
+        if (operation.getAction() == TasksBulkOperation.Action.CREATE) {
+            return operation.getTasks().getId() != null ? "idexists" : null;
+        }
+        return operation.getTasks().getId() == null ? "idnull" : null;
+    }
+
+    private Mono<Map<String, Long>> findVersions(Set<String> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(Collections.emptyMap());
+        }
+        Query query = Query.query(Criteria.where("id").in(ids));
+        query.fields().include("id").include("version");
+        return mongoTemplate
+            .find(query, Tasks.class)
+            .collectMap(Tasks::getId, tasks -> Objects.requireNonNullElse(tasks.getVersion(), 0L));
+    }
+
+    private Mono<Void> executeBulkWrite(List<TasksBulkOperation> operations, List<TasksBulkResult> results, Map<String, Long> versions) {
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        // The result of each write, as errors are reported by write index
+        List<TasksBulkResult> writeResults = new ArrayList<>();
+        // The document each update writes, by result
+        Map<TasksBulkResult, Document> updatedDocuments = new IdentityHashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            TasksBulkOperation operation = operations.get(i);
+            TasksBulkResult result = results.get(i);
+            if (result.getStatus() != null) {
+                continue;
+            }
+            if (operation.getAction() != TasksBulkOperation.Action.CREATE && !versions.containsKey(result.getId())) {
+                result.status(TasksBulkResult.Status.NOT_FOUND);
+                continue;
+            }
+            switch (operation.getAction()) {
+                case CREATE:
+                    // Generate the id client side to report it without reading the inserted document back
+                    operation.getTasks().setId(new ObjectId().toHexString());
+                    operation.getTasks().setVersion(0L);
+                    writes.add(new InsertOneModel<>(toDocument(operation.getTasks())));
+                    result.id(operation.getTasks().getId()).status(TasksBulkResult.Status.CREATED);
+                    break;
+                case UPDATE:
+                    // Replaces the tasks only at the version read, like TasksRepository#update, so that concurrent writes are not lost
+                    long version = versions.get(result.getId());
+                    operation.getTasks().setVersion(version + 1);
+                    Bson versionFilter = Filters.and(idFilter(result.getId()), Filters.eq("version", version));
+                    Document replacement = toDocument(operation.getTasks());
+                    writes.add(new ReplaceOneModel<>(versionFilter, replacement));
+                    result.status(TasksBulkResult.Status.UPDATED);
+                    updatedDocuments.put(result, replacement);
+                    break;
+                default:
+                    writes.add(new DeleteOneModel<>(idFilter(result.getId())));
+                    result.status(TasksBulkResult.Status.DELETED);
+            }
+            writeResults.add(result);
+        }
+        if (writes.isEmpty()) {
+            return Mono.empty();
+        }
+        return mongoTemplate
+            .getCollection(mongoTemplate.getCollectionName(Tasks.class))
+            .flatMap(collection -> Mono.from(collection.bulkWrite(writes, new BulkWriteOptions().ordered(false))))
+            .onErrorResume(
+                MongoBulkWriteException.class,
+                e -> {
+                    e.getWriteErrors().forEach(error -> writeResults.get(error.getIndex()).failed(error.getMessage()));
+                    return Mono.just(e.getWriteResult());
+                }
+            )
+            .filter(writeResult -> writeResult.getMatchedCount() < updatedDocuments.size())
+            .flatMap(writeResult -> checkUpdatedDocuments(updatedDocuments));
+    }
+
+    /**
+     * Finds the updates which matched no tasks, as the bulk write only reports how many matched.
+     * <p>
+     * An update matched if its tasks is now the document it wrote: the others were changed or deleted concurrently. The
+     * version alone doesn't tell, as another write from the version read, by a concurrent bulk or a {@code PUT}, writes
+     * the same next version.
+     */
+    private Mono<Void> checkUpdatedDocuments(Map<TasksBulkResult, Document> updatedDocuments) {
+        List<Object> ids = new ArrayList<>();
+        updatedDocuments.values().forEach(document -> ids.add(document.get("_id")));
+        return mongoTemplate
+            .getCollection(mongoTemplate.getCollectionName(Tasks.class))
+            .flatMapMany(collection -> collection.find(Filters.in("_id", ids)))
+            .collectMap(document -> document.get("_id"))
+            .doOnNext(
+                documents ->
+                    updatedDocuments.forEach(
+                        (result, document) -> {
+                            Document stored = documents.get(document.get("_id"));
+                            if (result.getStatus() == TasksBulkResult.Status.UPDATED && !document.equals(stored)) {
+                                result.conflict();
+                            }
+                        }
+                    )
+            )
+            .then();
+    }
+
+    private Document toDocument(Tasks tasks) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(tasks, document);
+        return document;
+    }
+
+    private static Bson idFilter(String id) {
+        // Same conversion as the mapping layer, which stores valid ObjectId strings as ObjectId
+        return Filters.eq("_id", ObjectId.isValid(id) ? new ObjectId(id) : id);
+    }
+}
@@ -0,0 +1,127 @@
+package yuchi.springframework.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.MongoException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Collections;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import yuchi.springframework.config.ApplicationProperties;
+import yuchi.springframework.domain.Tasks;
+import yuchi.springframework.repository.TasksRepository;
+
+/**
+ * Read-through cache of the tasks, looked up by id.
+ * <p>
+ * Entries are evicted on local writes through {@link #evict(String)}, and on writes of the other nodes through the
+ * change stream of the tasks collection. While the change stream is down, the whole cache is invalidated on each
+ * retry, so that entries are only ever stale for up to the configured time to live. Without change streams, on a
+ * standalone Mongo as in development, entries written by other nodes are only evicted after their time to live.
+ */
+@Service
+public class TasksCacheService {
+
+    private static final String CACHE_NAME = "tasks";
+
+    private static final Duration CHANGE_STREAM_MIN_BACKOFF = Duration.ofSeconds(1);
+
+    private static final Duration CHANGE_STREAM_MAX_BACKOFF = Duration.ofMinutes(1);
+
+    // The $changeStream stage is only supported on replica sets
+    private static final int CHANGE_STREAM_NOT_SUPPORTED = 40573;
+
+    private final Logger log = LoggerFactory.getLogger(TasksCacheService.class);
+
+    private final TasksRepository tasksRepository;
+
+    private final TasksChangeStreamService tasksChangeStreamService;
+
+    private final AsyncCache<String, Tasks> cache;
+
+    private Disposable invalidations;
+
+    public TasksCacheService(
+        TasksRepository tasksRepository,
+        TasksChangeStreamService tasksChangeStreamService,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.tasksRepository = tasksRepository;
+        this.tasksChangeStreamService = tasksChangeStreamService;
+        ApplicationProperties.Cache.Tasks properties = applicationProperties.getCache().getTasks();
+        this.cache =
+            Caffeine
+                .newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(Duration.ofSeconds(properties.getTimeToLiveSeconds()))
+                .recordStats()
+                .buildAsync();
+        new CaffeineCacheMetrics(cache.synchronous(), CACHE_NAME, Collections.emptyList()).bindTo(meterRegistry);
+    }
+
+    @PostConstruct
+    public void subscribeToChanges() {
+        invalidations =
+            tasksChangeStreamService
+                .getChanges(null)
+                .doOnNext(change -> evict(change.getId()))
+                .doOnError(
+                    e -> !isChangeStreamNotSupported(e),
+                    e -> {
+                        log.warn("Tasks change stream failed, invalidating the tasks cache: {}", e.getMessage());
+                        cache.synchronous().invalidateAll();
+                    }
+                )
+                .retryWhen(
+                    Retry
+                        .backoff(Long.MAX_VALUE, CHANGE_STREAM_MIN_BACKOFF)
+                        .maxBackoff(CHANGE_STREAM_MAX_BACKOFF)
+                        .filter(e -> !isChangeStreamNotSupported(e))
+                )
+                .subscribe(null, e -> log.info("Change streams not supported, tasks written by other nodes stay cached until they expire"));
+    }
+
+    private static boolean isChangeStreamNotSupported(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException && ((MongoException) cause).getCode() == CHANGE_STREAM_NOT_SUPPORTED) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void unsubscribeFromChanges() {
+        if (invalidations != null) {
+            invalidations.dispose();
+        }
+    }
+
+    /**
+     * Get a tasks by id, from the cache or else from the database.
+     *
+     * @param id the id of the tasks.
+     * @return the tasks, or an empty {@link Mono} if it doesn't exist.
+     */
+    public Mono<Tasks> findById(String id) {
+        return Mono.fromFuture(cache.get(id, (key, executor) -> tasksRepository.findById(key).toFuture()));
+    }
+
+    /**
+     * Evict a tasks from the cache, after it has been written.
+     *
+     * @param id the id of the tasks.
+     */
+    public void evict(String id) {
+        cache.synchronous().invalidate(id);
+    }
+}
@@ -0,0 +1,222 @@
+package yuchi.springframework.service;
+
+import com.mongodb.client.model.changestream.OperationType;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import yuchi.springframework.domain.Tasks;
+import yuchi.springframework.service.dto.TasksChangeDTO;
+
+/**
+ * Service publishing the changes of the tasks collection.
+ * <p>
+ * Live subscribers share a single change stream per node. Each subscriber has its own bounded buffer: a subscriber
+ * which doesn't keep up is terminated with an overflow error rather than slowing down the others, and can resume
+ * from the last change it received. A resuming subscriber gets the changes it missed from a dedicated change stream
+ * only until it catches up with the shared one, which then publishes the following changes: it has caught up once a
+ * change was received from both streams, or once the dedicated one has been idle while the shared one had no change.
+ */
+@Service
+public class TasksChangeStreamService {
+
+    private static final int SUBSCRIBER_BUFFER_SIZE = 256;
+
+    private static final int CATCH_UP_BUFFER_SIZE = 4096;
+
+    // Longer than the await time of a change stream, so that a missed change is not mistaken for an idle stream
+    static final Duration CATCH_UP_IDLE_TIMEOUT = Duration.ofSeconds(5);
+
+    private static final Set<OperationType> PUBLISHED_OPERATIONS = EnumSet.of(
+        OperationType.INSERT,
+        OperationType.UPDATE,
+        OperationType.REPLACE,
+        OperationType.DELETE
+    );
+
+    private final Logger log = LoggerFactory.getLogger(TasksChangeStreamService.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    private final Flux<TasksChangeDTO> sharedChanges;
+
+    public TasksChangeStreamService(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.sharedChanges = Flux.defer(() -> changeStream(null)).share();
+    }
+
+    /**
+     * Gets the changes of the tasks.
+     *
+     * @param resumeToken the resume token of the last change received, or {@code null} to only get the changes from now on.
+     * @return the changes of the tasks.
+     * @throws IllegalArgumentException if the resume token is not valid.
+     */
+    public Flux<TasksChangeDTO> getChanges(String resumeToken) {
+        Flux<TasksChangeDTO> changes = resumeToken == null ? sharedChanges : catchUp(decodeResumeToken(resumeToken));
+        return changes.onBackpressureBuffer(
+            SUBSCRIBER_BUFFER_SIZE,
+            change -> log.debug("Tasks change subscriber overflowed, dropping it at change {}", change)
+        );
+    }
+
+    private Flux<TasksChangeDTO> catchUp(BsonValue resumeAfter) {
+        return Flux.create(
+            sink -> {
+                CatchUp catchUp = new CatchUp(sink);
+                // The shared change stream is subscribed first, so that no change falls between the two streams
+                Disposable live = sharedChanges.subscribe(catchUp::onLiveChange, sink::error, sink::complete);
+                catchUp.missed.update(changeStream(resumeAfter).subscribe(catchUp::onMissedChange, sink::error));
+                catchUp.armIdleTimeout();
+                sink.onDispose(
+                    () -> {
+                        live.dispose();
+                        catchUp.missed.dispose();
+                        catchUp.idle.dispose();
+                    }
+                );
+            }
+        );
+    }
+
+    Flux<TasksChangeDTO> changeStream(BsonValue resumeAfter) {
+        ChangeStreamOptions.ChangeStreamOptionsBuilder options = ChangeStreamOptions.builder().returnFullDocumentOnUpdate();
+        if (resumeAfter != null) {
+            options.resumeAfter(resumeAfter);
+        }
+        return mongoTemplate
+            .changeStream(mongoTemplate.getCollectionName(Tasks.class), options.build(), Tasks.class)
+            .filter(event -> PUBLISHED_OPERATIONS.contains(event.getOperationType()))
+            .map(this::toChange);
+    }
+
+    private TasksChangeDTO toChange(ChangeStreamEvent<Tasks> event) {
+        BsonValue id = event.getRaw().getDocumentKey().get("_id");
+        return new TasksChangeDTO(
+            event.getOperationType().getValue(),
+            id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue(),
+            event.getBody(),
+            encodeResumeToken(event.getResumeToken())
+        );
+    }
+
+    private static String encodeResumeToken(BsonValue resumeToken) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(resumeToken.asDocument().toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static BsonValue decodeResumeToken(String resumeToken) {
+        try {
+            return BsonDocument.parse(new String(Base64.getUrlDecoder().decode(resumeToken), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid resume token", e);
+        }
+    }
+
+    /**
+     * Publishes the missed changes, replayed by a dedicated change stream, until a change is received from both the
+     * dedicated and the shared change streams. The dedicated change stream is then closed, and the changes of the shared
+     * one following that change are published. Both streams get the changes in the same order.
+     * <p>
+     * On a quiet collection, no change may follow the missed ones: once the dedicated change stream has published no
+     * change for {@link #CATCH_UP_IDLE_TIMEOUT} while the shared one has published none, it has replayed all the missed
+     * changes, and is closed the same way.
+     */
+    private static final class CatchUp {
+
+        private final FluxSink<TasksChangeDTO> sink;
+
+        private final Disposable.Swap missed = Disposables.swap();
+
+        private final Disposable.Swap idle = Disposables.swap();
+
+        // The changes of the shared change stream not received from the dedicated one yet, by resume token
+        private final Map<String, TasksChangeDTO> pendingLiveChanges = new LinkedHashMap<>();
+
+        // The resume tokens of the last changes published from the dedicated change stream
+        private final Set<String> publishedMissedChanges = new LinkedHashSet<>();
+
+        private boolean caughtUp;
+
+        private CatchUp(FluxSink<TasksChangeDTO> sink) {
+            this.sink = sink;
+        }
+
+        private synchronized void onLiveChange(TasksChangeDTO change) {
+            if (caughtUp) {
+                sink.next(change);
+            } else if (publishedMissedChanges.contains(change.getResumeToken())) {
+                // This change, and the ones before it, were published from the dedicated change stream
+                switchToLiveChanges();
+            } else if (pendingLiveChanges.size() < CATCH_UP_BUFFER_SIZE) {
+                pendingLiveChanges.put(change.getResumeToken(), change);
+            } else {
+                sink.error(Exceptions.failWithOverflow("Tasks change subscriber couldn't catch up with the live changes"));
+            }
+        }
+
+        private synchronized void armIdleTimeout() {
+            if (!caughtUp) {
+                idle.update(Mono.delay(CATCH_UP_IDLE_TIMEOUT).subscribe(tick -> onIdle()));
+            }
+        }
+
+        private synchronized void onIdle() {
+            // Pending live changes are yet to be replayed by the dedicated change stream, which is then not done
+            if (!caughtUp && pendingLiveChanges.isEmpty()) {
+                switchToLiveChanges();
+            }
+        }
+
+        private synchronized void onMissedChange(TasksChangeDTO change) {
+            if (caughtUp) {
+                return;
+            }
+            sink.next(change);
+            armIdleTimeout();
+            if (pendingLiveChanges.containsKey(change.getResumeToken())) {
+                // The pending changes up to this one were published from the dedicated change stream
+                Iterator<String> resumeTokens = pendingLiveChanges.keySet().iterator();
+                while (!resumeTokens.next().equals(change.getResumeToken())) {
+                    resumeTokens.remove();
+                }
+                resumeTokens.remove();
+                pendingLiveChanges.values().forEach(sink::next);
+                switchToLiveChanges();
+                return;
+            }
+            publishedMissedChanges.add(change.getResumeToken());
+            if (publishedMissedChanges.size() > CATCH_UP_BUFFER_SIZE) {
+                Iterator<String> oldest = publishedMissedChanges.iterator();
+                oldest.next();
+                oldest.remove();
+            }
+        }
+
+        private void switchToLiveChanges() {
+            caughtUp = true;
+            pendingLiveChanges.clear();
+            publishedMissedChanges.clear();
+            missed.dispose();
+            idle.dispose();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package yuchi.springframework.service;
+
+import com.mongodb.client.result.DeleteResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import yuchi.springframework.config.ApplicationProperties;
+import yuchi.springframework.domain.User;
+
+/**
+ * Service removing the users who did not activate their account within 3 days.
+ * <p>
+ * In {@link ApplicationProperties.UserCleanup.Mode#BATCH batch} mode, a nightly job streams the ids of these users in
+ * creation order and deletes them with one {@code deleteMany} per batch. The creation date of the last deleted batch is
+ * checkpointed, so that a job interrupted by a crash resumes where it stopped.
+ * <p>
+ * In {@link ApplicationProperties.UserCleanup.Mode#TTL TTL} mode, the job is disabled and a partial TTL index on the
+ * creation date, restricted to the not activated users with a string activation key, lets the database remove them.
+ */
+@Service
+public class UserCleanupService {
+
+    private static final Duration ACTIVATION_PERIOD = Duration.ofDays(3);
+
+    private static final String CHECKPOINT_COLLECTION = "jhi_job_checkpoint";
+
+    private static final String CHECKPOINT_ID = "removeNotActivatedUsers";
+
+    private static final String CREATED_DATE = "created_date";
+
+    private static final String TTL_INDEX_NAME = "user_not_activated_key_ttl";
+
+    // Filtered on the existence of the activation key, which an explicit null also satisfies
+    private static final String LEGACY_TTL_INDEX_NAME = "user_not_activated_ttl";
+
+    private final Logger log = LoggerFactory.getLogger(UserCleanupService.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    private final UserCountService userCountService;
+
+    private final ApplicationProperties.UserCleanup properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter deletedCounter;
+
+    private final Timer durationTimer;
+
+    private final Timer batchTimer;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public UserCleanupService(
+        ReactiveMongoTemplate mongoTemplate,
+        UserCountService userCountService,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.userCountService = userCountService;
+        this.properties = applicationProperties.getUserCleanup();
+        this.meterRegistry = meterRegistry;
+        this.deletedCounter =
+            Counter.builder("users.cleanup.deleted").description("Not activated users deleted by the cleanup job").register(meterRegistry);
+        this.durationTimer = Timer.builder("users.cleanup.duration").description("Duration of the cleanup job").register(meterRegistry);
+        this.batchTimer = Timer.builder("users.cleanup.batch").description("Latency of a batch of the cleanup job").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void configureMode() {
+        ReactiveIndexOperations indexOps = mongoTemplate.indexOps(User.class);
+        Set<String> droppedIndexes = properties.getMode() == ApplicationProperties.UserCleanup.Mode.TTL
+            ? Set.of(LEGACY_TTL_INDEX_NAME)
+            : Set.of(LEGACY_TTL_INDEX_NAME, TTL_INDEX_NAME);
+        Mono<Void> configured = indexOps
+            .getIndexInfo()
+            .filter(indexInfo -> droppedIndexes.contains(indexInfo.getName()))
+            .concatMap(indexInfo -> indexOps.dropIndex(indexInfo.getName()))
+            .then();
+        if (properties.getMode() == ApplicationProperties.UserCleanup.Mode.TTL) {
+            // A user is waiting for its activation exactly when it is not activated and has a string activation key:
+            // activating a user clears its key, and the users created by an administrator are activated. The key must
+            // be a string, rather than merely exist, so that an update setting the key to null instead of unsetting it
+            // never gets a deactivated user removed.
+            Index index = new Index()
+                .on(CREATED_DATE, Sort.Direction.ASC)
+                .named(TTL_INDEX_NAME)
+                .expire(ACTIVATION_PERIOD)
+                .partial(PartialIndexFilter.of(Criteria.where("activated").is(false).and("activation_key").type(2)));
+            configured = configured.then(indexOps.ensureIndex(index)).then();
+        }
+        configured.subscribe(
+            null,
+            e -> log.warn("Could not configure the removal of not activated users", e),
+            () -> log.debug("Removing not activated users in {} mode", properties.getMode())
+        );
+    }
+
+    /**
+     * Not activated users should be automatically deleted after 3 days.
+     * <p>
+     * This is scheduled to get fired everyday, at 01:00 (am).
+     */
+    @Scheduled(cron = "0 0 1 * * ?")
+    public void removeNotActivatedUsers() {
+        if (properties.getMode() != ApplicationProperties.UserCleanup.Mode.BATCH || !running.compareAndSet(false, true)) {
+            return;
+        }
+        removeNotActivatedUsersReactively()
+            .doFinally(signal -> running.set(false))
+            .subscribe(
+                deleted -> log.info("Deleted {} not activated users", deleted),
+                e -> log.error("Could not delete not activated users", e)
+            );
+    }
+
+    /**
+     * Deletes the users not activated within 3 days, in batches, from the last checkpoint.
+     *
+     * @return the number of deleted users.
+     */
+    public Mono<Long> removeNotActivatedUsersReactively() {
+        return Mono.defer(
+            () -> {
+                Instant createdBefore = Instant.now().minus(ACTIVATION_PERIOD.toDays(), ChronoUnit.DAYS);
+                Timer.Sample sample = Timer.start(meterRegistry);
+                return loadCheckpoint()
+                    .defaultIfEmpty(new Date(0))
+                    .flatMapMany(
+                        createdFrom -> {
+                            Query query = Query
+                                .query(
+                                    Criteria
+                                        .where("activated")
+                                        .is(false)
+                                        .and("activation_key")
+                                        .ne(null)
+                                        .and(CREATED_DATE)
+                                        .gte(createdFrom)
+                                        .lt(Date.from(createdBefore))
+                                )
+                                .with(Sort.by(CREATED_DATE));
+                            query.fields().include("_id").include(CREATED_DATE);
+                            return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(User.class));
+                        }
+                    )
+                    .buffer(properties.getBatchSize())
+                    .flatMapSequential(
+                        batch -> deleteBatch(batch).map(deleted -> new BatchResult(batch, deleted)),
+                        properties.getConcurrency()
+                    )
+                    .concatMap(result -> saveCheckpoint(result.lastCreatedDate).thenReturn(result.deleted))
+                    .reduce(0L, Long::sum)
+                    .flatMap(deleted -> clearCheckpoint().thenReturn(deleted))
+                    .doFinally(signal -> sample.stop(durationTimer));
+            }
+        );
+    }
+
+    private Mono<Long> deleteBatch(List<Document> batch) {
+        List<Object> ids = batch.stream().map(document -> document.get("_id")).collect(Collectors.toList());
+        // Users activated since they were read are kept
+        Query query = Query.query(Criteria.where("id").in(ids).and("activated").is(false));
+        return Mono.defer(
+            () -> {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                return mongoTemplate
+                    .remove(query, User.class)
+                    .map(DeleteResult::getDeletedCount)
+                    .doOnNext(deletedCounter::increment)
+                    .doOnNext(userCountService::decrement)
+                    .doOnNext(deleted -> log.debug("Deleted a batch of {} not activated users", deleted))
+                    .doFinally(signal -> sample.stop(batchTimer));
+            }
+        );
+    }
+
+    private Mono<Date> loadCheckpoint() {
+        return mongoTemplate
+            .findById(CHECKPOINT_ID, Document.class, CHECKPOINT_COLLECTION)
+            .flatMap(checkpoint -> Mono.justOrEmpty(checkpoint.getDate(CREATED_DATE)))
+            .doOnNext(createdFrom -> log.info("Resuming the deletion of not activated users created from {}", createdFrom));
+    }
+
+    private Mono<Void> saveCheckpoint(Date createdDate) {
+        return mongoTemplate
+            .upsert(Query.query(Criteria.where("_id").is(CHECKPOINT_ID)), Update.update(CREATED_DATE, createdDate), CHECKPOINT_COLLECTION)
+            .then();
+    }
+
+    private Mono<Void> clearCheckpoint() {
+        return mongoTemplate.remove(Query.query(Criteria.where("_id").is(CHECKPOINT_ID)), CHECKPOINT_COLLECTION).then();
+    }
+
+    private static final class BatchResult {
+
+        private final Date lastCreatedDate;
+
+        private final long deleted;
+
+        private BatchResult(List<Document> batch, long deleted) {
+            this.lastCreatedDate = batch.get(batch.size() - 1).getDate(CREATED_DATE);
+            this.deleted = deleted;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package yuchi.springframework.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import yuchi.springframework.domain.User;
+
+/**
+ * Service maintaining the number of users.
+ * <p>
+ * The count is kept up to date by {@link UserService} as it inserts and deletes users, and reconciled periodically
+ * with the estimated document count of the users collection, to catch up with the writes of the other nodes.
+ */
+@Service
+public class UserCountService {
+
+    private static final long UNKNOWN = -1;
+
+    private final Logger log = LoggerFactory.getLogger(UserCountService.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    private final AtomicLong count = new AtomicLong(UNKNOWN);
+
+    public UserCountService(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Get the number of users.
+     *
+     * @return the number of users.
+     */
+    public Mono<Long> getCount() {
+        long current = count.get();
+        return current == UNKNOWN ? estimateCount() : Mono.just(current);
+    }
+
+    /**
+     * Record inserted users.
+     *
+     * @param inserted the number of inserted users.
+     */
+    public void increment(long inserted) {
+        count.updateAndGet(current -> current == UNKNOWN ? UNKNOWN : current + inserted);
+    }
+
+    /**
+     * Record deleted users.
+     *
+     * @param deleted the number of deleted users.
+     */
+    public void decrement(long deleted) {
+        count.updateAndGet(current -> current == UNKNOWN ? UNKNOWN : Math.max(0, current - deleted));
+    }
+
+    /**
+     * Reconcile the count with the database.
+     * <p>
+     * This is scheduled to get fired every minute.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void reconcile() {
+        estimateCount()
+            .subscribe(estimated -> log.debug("Reconciled user count: {}", estimated), e -> log.warn("Could not count users", e));
+    }
+
+    private Mono<Long> estimateCount() {
+        return mongoTemplate
+            .getCollection(mongoTemplate.getCollectionName(User.class))
+            .flatMap(collection -> Mono.from(collection.estimatedDocumentCount()))
+            .doOnNext(count::set);
+    }
+}
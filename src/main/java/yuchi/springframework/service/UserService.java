@@ -1,12 +1,15 @@
 package yuchi.springframework.service;
 
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
@@ -16,9 +19,10 @@ import tech.jhipster.security.RandomUtil;
 import yuchi.springframework.config.Constants;
 import yuchi.springframework.domain.Authority;
 import yuchi.springframework.domain.User;
-import yuchi.springframework.repository.AuthorityRepository;
 import yuchi.springframework.repository.UserRepository;
 import yuchi.springframework.security.AuthoritiesConstants;
+import yuchi.springframework.security.DomainUserDetailsService;
+import yuchi.springframework.security.PasswordHashingScheduler;
 import yuchi.springframework.security.SecurityUtils;
 import yuchi.springframework.service.dto.AdminUserDTO;
 import yuchi.springframework.service.dto.UserDTO;
@@ -29,18 +33,36 @@ import yuchi.springframework.service.dto.UserDTO;
 @Service
 public class UserService {
 
+    private static final Pattern DUPLICATE_KEY_INDEX = Pattern.compile("index: (\\S+)");
+
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
 
     private final PasswordEncoder passwordEncoder;
 
-    private final AuthorityRepository authorityRepository;
+    private final AuthorityRegistry authorityRegistry;
+
+    private final PasswordHashingScheduler passwordHashingScheduler;
+
+    private final DomainUserDetailsService userDetailsService;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository) {
+    private final UserCountService userCountService;
+
+    public UserService(
+        UserRepository userRepository,
+        PasswordEncoder passwordEncoder,
+        AuthorityRegistry authorityRegistry,
+        PasswordHashingScheduler passwordHashingScheduler,
+        DomainUserDetailsService userDetailsService,
+        UserCountService userCountService
+    ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.authorityRepository = authorityRepository;
+        this.authorityRegistry = authorityRegistry;
+        this.passwordHashingScheduler = passwordHashingScheduler;
+        this.userDetailsService = userDetailsService;
+        this.userCountService = userCountService;
     }
 
     public Mono<User> activateRegistration(String key) {
@@ -55,7 +77,8 @@ public class UserService {
                     return saveUser(user);
                 }
             )
-            .doOnNext(user -> log.debug("Activated user: {}", user));
+            .doOnNext(user -> log.debug("Activated user: {}", user))
+            .checkpoint("UserService.activateRegistration");
     }
 
     public Mono<User> completePasswordReset(String newPassword, String key) {
@@ -63,7 +86,7 @@ public class UserService {
         return userRepository
             .findOneByResetKey(key)
             .filter(user -> user.getResetDate().isAfter(Instant.now().minusSeconds(86400)))
-            .publishOn(Schedulers.boundedElastic())
+            .publishOn(passwordHashingScheduler.getScheduler())
             .map(
                 user -> {
                     user.setPassword(passwordEncoder.encode(newPassword));
@@ -72,12 +95,13 @@ public class UserService {
                     return user;
                 }
             )
-            .flatMap(this::saveUser);
+            .flatMap(this::saveUser)
+            .checkpoint("UserService.completePasswordReset");
     }
 
     public Mono<User> requestPasswordReset(String mail) {
         return userRepository
-            .findOneByEmailIgnoreCase(mail)
+            .findOneByEmailNormalized(mail)
             .filter(User::isActivated)
             .publishOn(Schedulers.boundedElastic())
             .map(
@@ -87,69 +111,87 @@ public class UserService {
                     return user;
                 }
             )
-            .flatMap(this::saveUser);
+            .flatMap(this::saveUser)
+            .checkpoint("UserService.requestPasswordReset");
     }
 
+    /**
+     * Register a new user, which is not activated.
+     * <p>
+     * The user is inserted right away, relying on the unique indexes on login and email. If either is used by a user
+     * that isn't activated, that user is removed and the insertion is retried once.
+     *
+     * @param userDTO the user to register.
+     * @param password the clear text password of the user.
+     * @return the registered user.
+     * @throws UsernameAlreadyUsedException if the login is used by an activated user.
+     * @throws EmailAlreadyUsedException if the email is used by an activated user.
+     */
     public Mono<User> registerUser(AdminUserDTO userDTO, String password) {
-        return userRepository
-            .findOneByLogin(userDTO.getLogin().toLowerCase())
-            .flatMap(
-                existingUser -> {
-                    if (!existingUser.isActivated()) {
-                        return userRepository.delete(existingUser);
-                    } else {
-                        return Mono.error(new UsernameAlreadyUsedException());
-                    }
-                }
-            )
-            .then(userRepository.findOneByEmailIgnoreCase(userDTO.getEmail()))
-            .flatMap(
-                existingUser -> {
-                    if (!existingUser.isActivated()) {
-                        return userRepository.delete(existingUser);
-                    } else {
-                        return Mono.error(new EmailAlreadyUsedException());
+        return Mono
+            .fromCallable(
+                () -> {
+                    User newUser = new User();
+                    String encryptedPassword = passwordEncoder.encode(password);
+                    newUser.setLogin(userDTO.getLogin().toLowerCase());
+                    // new user gets initially a generated password
+                    newUser.setPassword(encryptedPassword);
+                    newUser.setFirstName(userDTO.getFirstName());
+                    newUser.setLastName(userDTO.getLastName());
+                    if (userDTO.getEmail() != null) {
+                        newUser.setEmail(userDTO.getEmail().toLowerCase());
                     }
+                    newUser.setImageUrl(userDTO.getImageUrl());
+                    newUser.setLangKey(userDTO.getLangKey());
+                    // new user is not active
+                    newUser.setActivated(false);
+                    // new user gets registration key
+                    newUser.setActivationKey(RandomUtil.generateActivationKey());
+                    return newUser;
                 }
             )
-            .publishOn(Schedulers.boundedElastic())
-            .then(
-                Mono.fromCallable(
-                    () -> {
-                        User newUser = new User();
-                        String encryptedPassword = passwordEncoder.encode(password);
-                        newUser.setLogin(userDTO.getLogin().toLowerCase());
-                        // new user gets initially a generated password
-                        newUser.setPassword(encryptedPassword);
-                        newUser.setFirstName(userDTO.getFirstName());
-                        newUser.setLastName(userDTO.getLastName());
-                        if (userDTO.getEmail() != null) {
-                            newUser.setEmail(userDTO.getEmail().toLowerCase());
-                        }
-                        newUser.setImageUrl(userDTO.getImageUrl());
-                        newUser.setLangKey(userDTO.getLangKey());
-                        // new user is not active
-                        newUser.setActivated(false);
-                        // new user gets registration key
-                        newUser.setActivationKey(RandomUtil.generateActivationKey());
-                        return newUser;
-                    }
-                )
-            )
+            .subscribeOn(passwordHashingScheduler.getScheduler())
             .flatMap(
                 newUser -> {
                     Set<Authority> authorities = new HashSet<>();
-                    return authorityRepository
-                        .findById(AuthoritiesConstants.USER)
+                    return authorityRegistry
+                        .findByName(AuthoritiesConstants.USER)
                         .map(authorities::add)
                         .thenReturn(newUser)
-                        .doOnNext(user -> user.setAuthorities(authorities))
-                        .flatMap(this::saveUser)
-                        .doOnNext(user -> log.debug("Created Information for User: {}", user));
+                        .doOnNext(user -> user.setAuthorities(authorities));
                 }
+            )
+            .flatMap(newUser -> saveRegisteredUser(newUser, 2))
+            .doOnNext(user -> userCountService.increment(1))
+            .doOnNext(user -> log.debug("Created Information for User: {}", user))
+            .checkpoint("UserService.registerUser");
+    }
+
+    /**
+     * Save a registered user, replacing the not activated user holding its login, then the one holding its email.
+     */
+    private Mono<User> saveRegisteredUser(User newUser, int conflictsLeft) {
+        return saveUser(newUser)
+            .onErrorResume(
+                e -> conflictsLeft > 0 && (e instanceof UsernameAlreadyUsedException || e instanceof EmailAlreadyUsedException),
+                e ->
+                    removeNotActivatedUser(newUser, e)
+                        .flatMap(removed -> removed ? saveRegisteredUser(newUser, conflictsLeft - 1) : Mono.error(e))
             );
     }
 
+    /**
+     * Remove the user holding the login or the email of the violated index, if it is not activated.
+     *
+     * @return whether the user was removed.
+     */
+    private Mono<Boolean> removeNotActivatedUser(User newUser, Throwable conflict) {
+        Mono<Long> removedUsers = conflict instanceof EmailAlreadyUsedException
+            ? userRepository.deleteByEmailAndActivatedIsFalse(newUser.getEmail())
+            : userRepository.deleteByLoginAndActivatedIsFalse(newUser.getLogin());
+        return removedUsers.doOnNext(userCountService::decrement).map(removed -> removed > 0);
+    }
+
     public Mono<User> createUser(AdminUserDTO userDTO) {
         User user = new User();
         user.setLogin(userDTO.getLogin().toLowerCase());
@@ -164,12 +206,11 @@ public class UserService {
         } else {
             user.setLangKey(userDTO.getLangKey());
         }
-        return Flux
-            .fromIterable(userDTO.getAuthorities() != null ? userDTO.getAuthorities() : new HashSet<>())
-            .flatMap(authorityRepository::findById)
+        return authorityRegistry
+            .findAllByName(userDTO.getAuthorities() != null ? userDTO.getAuthorities() : new HashSet<>())
             .doOnNext(authority -> user.getAuthorities().add(authority))
             .then(Mono.just(user))
-            .publishOn(Schedulers.boundedElastic())
+            .publishOn(passwordHashingScheduler.getScheduler())
             .map(
                 newUser -> {
                     String encryptedPassword = passwordEncoder.encode(RandomUtil.generatePassword());
@@ -181,7 +222,9 @@ public class UserService {
                 }
             )
             .flatMap(this::saveUser)
-            .doOnNext(user1 -> log.debug("Created Information for User: {}", user1));
+            .doOnNext(user1 -> userCountService.increment(1))
+            .doOnNext(user1 -> log.debug("Created Information for User: {}", user1))
+            .checkpoint("UserService.createUser");
     }
 
     /**
@@ -195,6 +238,8 @@ public class UserService {
             .findById(userDTO.getId())
             .flatMap(
                 user -> {
+                    // The login may change, so evict the user under its current login
+                    userDetailsService.evictUser(user.getLogin());
                     user.setLogin(userDTO.getLogin().toLowerCase());
                     user.setFirstName(userDTO.getFirstName());
                     user.setLastName(userDTO.getLastName());
@@ -206,9 +251,8 @@ public class UserService {
                     user.setLangKey(userDTO.getLangKey());
                     Set<Authority> managedAuthorities = user.getAuthorities();
                     managedAuthorities.clear();
-                    return Flux
-                        .fromIterable(userDTO.getAuthorities())
-                        .flatMap(authorityRepository::findById)
+                    return authorityRegistry
+                        .findAllByName(userDTO.getAuthorities())
                         .map(managedAuthorities::add)
                         .then(Mono.just(user));
                 }
@@ -222,8 +266,11 @@ public class UserService {
         return userRepository
             .findOneByLogin(login)
             .flatMap(user -> userRepository.delete(user).thenReturn(user))
+            .doOnNext(user -> userDetailsService.evictUser(user.getLogin()))
+            .doOnNext(user -> userCountService.decrement(1))
             .doOnNext(user -> log.debug("Deleted User: {}", user))
-            .then();
+            .then()
+            .checkpoint("UserService.deleteUser");
     }
 
     /**
@@ -268,14 +315,27 @@ public class UserService {
                     user.setLastModifiedBy(login);
                     return userRepository.save(user);
                 }
-            );
+            )
+            .onErrorMap(DuplicateKeyException.class, UserService::toAlreadyUsedException)
+            .doOnNext(savedUser -> userDetailsService.evictUser(savedUser.getLogin()));
+    }
+
+    /**
+     * Translate the violation of a unique index of the users.
+     */
+    private static RuntimeException toAlreadyUsedException(DuplicateKeyException e) {
+        Matcher index = DUPLICATE_KEY_INDEX.matcher(String.valueOf(e.getMessage()));
+        if (index.find() && index.group(1).startsWith("email")) {
+            return new EmailAlreadyUsedException();
+        }
+        return new UsernameAlreadyUsedException();
     }
 
     public Mono<Void> changePassword(String currentClearTextPassword, String newPassword) {
         return SecurityUtils
             .getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
-            .publishOn(Schedulers.boundedElastic())
+            .publishOn(passwordHashingScheduler.getScheduler())
             .map(
                 user -> {
                     String currentEncryptedPassword = user.getPassword();
@@ -289,19 +349,48 @@ public class UserService {
             )
             .flatMap(this::saveUser)
             .doOnNext(user -> log.debug("Changed password for User: {}", user))
-            .then();
+            .then()
+            .checkpoint("UserService.changePassword");
     }
 
     public Flux<AdminUserDTO> getAllManagedUsers(Pageable pageable) {
         return userRepository.findAllByIdNotNull(pageable).map(AdminUserDTO::new);
     }
 
+    /**
+     * Gets a page of the users, ordered by login, after the given login.
+     *
+     * @param afterLogin the login of the last user of the previous page, or {@code null} for the first page.
+     * @param size the size of the page.
+     * @return the page of users.
+     */
+    public Flux<AdminUserDTO> getAllManagedUsers(String afterLogin, int size) {
+        return userRepository.findAllByLoginGreaterThan(afterLogin == null ? "" : afterLogin, loginPage(size)).map(AdminUserDTO::new);
+    }
+
     public Flux<UserDTO> getAllPublicUsers(Pageable pageable) {
         return userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
     }
 
+    /**
+     * Gets a page of the activated users, ordered by login, after the given login.
+     *
+     * @param afterLogin the login of the last user of the previous page, or {@code null} for the first page.
+     * @param size the size of the page.
+     * @return the page of users.
+     */
+    public Flux<UserDTO> getAllPublicUsers(String afterLogin, int size) {
+        return userRepository
+            .findAllByLoginGreaterThanAndActivatedIsTrue(afterLogin == null ? "" : afterLogin, loginPage(size))
+            .map(UserDTO::new);
+    }
+
+    private static Pageable loginPage(int size) {
+        return PageRequest.of(0, size, Sort.by("login"));
+    }
+
     public Mono<Long> countManagedUsers() {
-        return userRepository.count();
+        return userCountService.getCount();
     }
 
     public Mono<User> getUserWithAuthoritiesByLogin(String login) {
@@ -312,28 +401,11 @@ public class UserService {
         return SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findOneByLogin);
     }
 
-    /**
-     * Not activated users should be automatically deleted after 3 days.
-     * <p>
-     * This is scheduled to get fired everyday, at 01:00 (am).
-     */
-    @Scheduled(cron = "0 0 1 * * ?")
-    public void removeNotActivatedUsers() {
-        removeNotActivatedUsersReactively().blockLast();
-    }
-
-    public Flux<User> removeNotActivatedUsersReactively() {
-        return userRepository
-            .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant.now().minus(3, ChronoUnit.DAYS))
-            .flatMap(user -> userRepository.delete(user).thenReturn(user))
-            .doOnNext(user -> log.debug("Deleted User: {}", user));
-    }
-
     /**
      * Gets a list of all the authorities.
      * @return a list of all the authorities.
      */
     public Flux<String> getAuthorities() {
-        return authorityRepository.findAll().map(Authority::getName);
+        return authorityRegistry.findAll().map(Authority::getName);
     }
 }
@@ -0,0 +1,80 @@
+package yuchi.springframework.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import yuchi.springframework.domain.Tasks;
+
+/**
+ * One create, update or delete operation of a bulk write on the Tasks entity.
+ */
+public class TasksBulkOperation {
+
+    public enum Action {
+        @JsonProperty("create")
+        CREATE,
+        @JsonProperty("update")
+        UPDATE,
+        @JsonProperty("delete")
+        DELETE
+    }
+
+    private Action action;
+
+    private String id;
+
+    private Tasks tasks;
+
+    public Action getAction() {
+        return action;
+    }
+
+    public void setAction(Action action) {
+        this.action = action;
+    }
+
+    public TasksBulkOperation action(Action action) {
+        this.action = action;
+        return this;
+    }
+
+    /**
+     * @return the id of the tasks to delete.
+     */
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public TasksBulkOperation id(String id) {
+        this.id = id;
+        return this;
+    }
+
+    /**
+     * @return the tasks to create or update.
+     */
+    public Tasks getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(Tasks tasks) {
+        this.tasks = tasks;
+    }
+
+    public TasksBulkOperation tasks(Tasks tasks) {
+        this.tasks = tasks;
+        return this;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TasksBulkOperation{" +
+            "action=" + action +
+            ", id='" + id + "'" +
+            ", tasks=" + tasks +
+            "}";
+    }
+}
@@ -0,0 +1,138 @@
+package yuchi.springframework.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The outcome of one {@link TasksBulkOperation}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TasksBulkResult {
+
+    public enum Status {
+        @JsonProperty("created")
+        CREATED,
+        @JsonProperty("updated")
+        UPDATED,
+        @JsonProperty("deleted")
+        DELETED,
+        @JsonProperty("not_found")
+        NOT_FOUND,
+        @JsonProperty("conflict")
+        CONFLICT,
+        @JsonProperty("failed")
+        FAILED
+    }
+
+    private long index;
+
+    private TasksBulkOperation.Action action;
+
+    private String id;
+
+    private Status status;
+
+    private String error;
+
+    /**
+     * @return the position of the operation in the bulk request.
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    public void setIndex(long index) {
+        this.index = index;
+    }
+
+    public TasksBulkResult index(long index) {
+        this.index = index;
+        return this;
+    }
+
+    public TasksBulkOperation.Action getAction() {
+        return action;
+    }
+
+    public void setAction(TasksBulkOperation.Action action) {
+        this.action = action;
+    }
+
+    public TasksBulkResult action(TasksBulkOperation.Action action) {
+        this.action = action;
+        return this;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public TasksBulkResult id(String id) {
+        this.id = id;
+        return this;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public TasksBulkResult status(Status status) {
+        this.status = status;
+        return this;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public TasksBulkResult error(String error) {
+        this.error = error;
+        return this;
+    }
+
+    /**
+     * Marks the operation as conflicting with a concurrent write of its tasks.
+     *
+     * @return this result.
+     */
+    public TasksBulkResult conflict() {
+        this.status = Status.CONFLICT;
+        return this;
+    }
+
+    /**
+     * Marks the operation as failed.
+     *
+     * @param error the reason of the failure.
+     * @return this result.
+     */
+    public TasksBulkResult failed(String error) {
+        this.status = Status.FAILED;
+        this.error = error;
+        return this;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TasksBulkResult{" +
+            "index=" + index +
+            ", action=" + action +
+            ", id='" + id + "'" +
+            ", status=" + status +
+            ", error='" + error + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,79 @@
+package yuchi.springframework.service.dto;
+
+import yuchi.springframework.domain.Tasks;
+
+/**
+ * A DTO representing a change of a tasks, read from the change stream of the tasks collection.
+ */
+public class TasksChangeDTO {
+
+    private String operation;
+
+    private String id;
+
+    private Tasks tasks;
+
+    private String resumeToken;
+
+    public TasksChangeDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public TasksChangeDTO(String operation, String id, Tasks tasks, String resumeToken) {
+        this.operation = operation;
+        this.id = id;
+        this.tasks = tasks;
+        this.resumeToken = resumeToken;
+    }
+
+    /**
+     * @return the change operation: {@code insert}, {@code update}, {@code replace} or {@code delete}.
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the tasks after the change, or {@code null} if it was deleted.
+     */
+    public Tasks getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(Tasks tasks) {
+        this.tasks = tasks;
+    }
+
+    /**
+     * @return the opaque token to resume the change stream right after this change.
+     */
+    public String getResumeToken() {
+        return resumeToken;
+    }
+
+    public void setResumeToken(String resumeToken) {
+        this.resumeToken = resumeToken;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TasksChangeDTO{" +
+            "operation='" + operation + '\'' +
+            ", id='" + id + '\'' +
+            ", tasks=" + tasks +
+            "}";
+    }
+}
@@ -0,0 +1,71 @@
+package yuchi.springframework.web.filter;
+
+import java.util.List;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+import yuchi.springframework.config.metric.HotPaths;
+
+/**
+ * Records the latency of each request as a route of the {@link HotPaths}, named after its method and the pattern of
+ * its handler. Requests answered with a server error are recorded as failed.
+ * <p>
+ * Streamed responses, such as the Server-Sent Events of the changes of the tasks, are not recorded: they last as long
+ * as their connection, which is not a latency.
+ */
+@Component
+public class HotPathsWebFilter implements WebFilter, Ordered {
+
+    private static final String UNKNOWN_PATTERN = "UNKNOWN";
+
+    private static final List<MediaType> STREAMING_MEDIA_TYPES = List.of(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_NDJSON);
+
+    private final HotPaths hotPaths;
+
+    public HotPathsWebFilter(HotPaths hotPaths) {
+        this.hotPaths = hotPaths;
+    }
+
+    @Override
+    public int getOrder() {
+        // Before the security filters, which are part of the latency
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        return chain
+            .filter(exchange)
+            .doOnEach(
+                signal -> {
+                    if (signal.isOnComplete() || signal.isOnError()) {
+                        HttpStatus status = exchange.getResponse().getStatusCode();
+                        record(exchange, start, signal.isOnError() || (status != null && status.is5xxServerError()));
+                    }
+                }
+            )
+            .doOnCancel(() -> record(exchange, start, false));
+    }
+
+    private void record(ServerWebExchange exchange, long start, boolean failed) {
+        if (isStreaming(exchange)) {
+            return;
+        }
+        PathPattern pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = exchange.getRequest().getMethodValue() + ' ' + (pattern != null ? pattern.getPatternString() : UNKNOWN_PATTERN);
+        hotPaths.record(HotPaths.Kind.ROUTE, route, System.nanoTime() - start, failed);
+    }
+
+    private static boolean isStreaming(ServerWebExchange exchange) {
+        MediaType contentType = exchange.getResponse().getHeaders().getContentType();
+        return contentType != null && STREAMING_MEDIA_TYPES.stream().anyMatch(contentType::isCompatibleWith);
+    }
+}
@@ -1,31 +1,97 @@
 package yuchi.springframework.web.filter;
 
+import java.util.List;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
+import yuchi.springframework.config.ApplicationProperties;
 
 @Component
 public class SpaWebFilter implements WebFilter {
 
+    private final PathPrefixTrie excludedPathPrefixes;
+
+    public SpaWebFilter(ApplicationProperties applicationProperties) {
+        this(applicationProperties.getSpa().getExcludedPathPrefixes());
+    }
+
+    SpaWebFilter(List<String> excludedPathPrefixes) {
+        this.excludedPathPrefixes = new PathPrefixTrie(excludedPathPrefixes);
+    }
+
     /**
      * Forwards any unmapped paths (except those containing a period) to the client {@code index.html}.
      */
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
-        String path = exchange.getRequest().getURI().getPath();
-        if (
-            !path.startsWith("/api") &&
-            !path.startsWith("/management") &&
-            !path.startsWith("/services") &&
-            !path.startsWith("/swagger") &&
-            !path.startsWith("/v2/api-docs") &&
-            !path.startsWith("/v3/api-docs") &&
-            path.matches("[^\\\\.]*")
-        ) {
+        if (isForwarded(exchange.getRequest().getPath().value())) {
             return chain.filter(exchange.mutate().request(exchange.getRequest().mutate().path("/index.html").build()).build());
         }
         return chain.filter(exchange);
     }
+
+    /**
+     * Whether a path belongs to the client application, that is neither under an excluded prefix nor the path of a file.
+     */
+    boolean isForwarded(String path) {
+        return !excludedPathPrefixes.matchesPrefixOf(path) && !containsPeriodOrBackslash(path);
+    }
+
+    private static boolean containsPeriodOrBackslash(String path) {
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '.' || c == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Trie of path prefixes, walked character by character without allocating.
+     */
+    static final class PathPrefixTrie {
+
+        // Prefixes are URL paths, so their characters are ASCII
+        private static final int ALPHABET_SIZE = 128;
+
+        private final PathPrefixTrie[] children = new PathPrefixTrie[ALPHABET_SIZE];
+
+        private boolean terminal;
+
+        PathPrefixTrie(List<String> prefixes) {
+            prefixes.forEach(this::add);
+        }
+
+        private PathPrefixTrie() {}
+
+        private void add(String prefix) {
+            PathPrefixTrie node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                char c = prefix.charAt(i);
+                if (c >= ALPHABET_SIZE) {
+                    throw new IllegalArgumentException("Path prefix must be ASCII: " + prefix);
+                }
+                if (node.children[c] == null) {
+                    node.children[c] = new PathPrefixTrie();
+                }
+                node = node.children[c];
+            }
+            node.terminal = true;
+        }
+
+        boolean matchesPrefixOf(String path) {
+            PathPrefixTrie node = this;
+            for (int i = 0; i < path.length() && !node.terminal; i++) {
+                char c = path.charAt(i);
+                node = c < ALPHABET_SIZE ? node.children[c] : null;
+                if (node == null) {
+                    return false;
+                }
+            }
+            return node.terminal;
+        }
+    }
 }
@@ -63,7 +63,10 @@ public class AccountResource {
         if (isPasswordLengthInvalid(managedUserVM.getPassword())) {
             throw new InvalidPasswordException();
         }
-        return userService.registerUser(managedUserVM, managedUserVM.getPassword()).doOnSuccess(mailService::sendActivationEmail).then();
+        return userService
+            .registerUser(managedUserVM, managedUserVM.getPassword())
+            .flatMap(mailService::sendActivationEmail)
+            .checkpoint("POST /api/register");
     }
 
     /**
@@ -77,7 +80,8 @@ public class AccountResource {
         return userService
             .activateRegistration(key)
             .switchIfEmpty(Mono.error(new AccountResourceException("No user was found for this activation key")))
-            .then();
+            .then()
+            .checkpoint("GET /api/activate");
     }
 
     /**
@@ -103,7 +107,8 @@ public class AccountResource {
         return userService
             .getUserWithAuthorities()
             .map(AdminUserDTO::new)
-            .switchIfEmpty(Mono.error(new AccountResourceException("User could not be found")));
+            .switchIfEmpty(Mono.error(new AccountResourceException("User could not be found")))
+            .checkpoint("GET /api/account");
     }
 
     /**
@@ -121,7 +126,7 @@ public class AccountResource {
             .flatMap(
                 userLogin ->
                     userRepository
-                        .findOneByEmailIgnoreCase(userDTO.getEmail())
+                        .findOneByEmailNormalized(userDTO.getEmail())
                         .filter(existingUser -> !existingUser.getLogin().equalsIgnoreCase(userLogin))
                         .hasElement()
                         .flatMap(
@@ -143,7 +148,8 @@ public class AccountResource {
                         userDTO.getLangKey(),
                         userDTO.getImageUrl()
                     )
-            );
+            )
+            .checkpoint("POST /api/account");
     }
 
     /**
@@ -157,7 +163,9 @@ public class AccountResource {
         if (isPasswordLengthInvalid(passwordChangeDto.getNewPassword())) {
             throw new InvalidPasswordException();
         }
-        return userService.changePassword(passwordChangeDto.getCurrentPassword(), passwordChangeDto.getNewPassword());
+        return userService
+            .changePassword(passwordChangeDto.getCurrentPassword(), passwordChangeDto.getNewPassword())
+            .checkpoint("POST /api/account/change-password");
     }
 
     /**
@@ -171,16 +179,15 @@ public class AccountResource {
             .requestPasswordReset(mail)
             .doOnSuccess(
                 user -> {
-                    if (Objects.nonNull(user)) {
-                        mailService.sendPasswordResetMail(user);
-                    } else {
+                    if (Objects.isNull(user)) {
                         // Pretend the request has been successful to prevent checking which emails really exist
                         // but log that an invalid attempt has been made
                         log.warn("Password reset requested for non existing mail");
                     }
                 }
             )
-            .then();
+            .flatMap(mailService::sendPasswordResetMail)
+            .checkpoint("POST /api/account/reset-password/init");
     }
 
     /**
@@ -198,7 +205,8 @@ public class AccountResource {
         return userService
             .completePasswordReset(keyAndPassword.getNewPassword(), keyAndPassword.getKey())
             .switchIfEmpty(Mono.error(new AccountResourceException("No user was found for this reset key")))
-            .then();
+            .then()
+            .checkpoint("POST /api/account/reset-password/finish");
     }
 
     private static boolean isPasswordLengthInvalid(String password) {
@@ -0,0 +1,88 @@
+package yuchi.springframework.web.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yuchi.springframework.web.rest.errors.BadRequestAlertException;
+
+/**
+ * Utility class for keyset pagination, where each page is seeked after the key of the last item of the previous page.
+ * <p>
+ * The cursor of the next page is returned in the {@code X-Next-Cursor} and {@code Link} headers, and is absent on the
+ * last page. Pages are capped to {@link #MAX_PAGE_SIZE}, as each of them is collected before being written.
+ */
+final class CursorPaginationUtil {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    private CursorPaginationUtil() {}
+
+    static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Gets a page of items, with the headers of the next page.
+     *
+     * @param request the request of the page.
+     * @param size the requested page size, capped to {@link #MAX_PAGE_SIZE}.
+     * @param find finds the items after the cursor of the page, sorted by key, up to the given limit.
+     * @param key the key of an item, from which the cursor of the next page is encoded.
+     * @param <T> the type of the items.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the items of the page.
+     */
+    static <T> Mono<ResponseEntity<Flux<T>>> getPage(
+        ServerHttpRequest request,
+        int size,
+        IntFunction<Flux<T>> find,
+        Function<T, String> key
+    ) {
+        int limit = pageSize(size);
+        // One more item than the page size tells whether there is a next page
+        return find
+            .apply(limit + 1)
+            .collectList()
+            .map(
+                items -> {
+                    HttpHeaders headers = new HttpHeaders();
+                    List<T> page = items.size() > limit ? items.subList(0, limit) : items;
+                    if (items.size() > limit) {
+                        addNextPageHeaders(headers, request, encodeCursor(key.apply(page.get(limit - 1))), limit);
+                    }
+                    return ResponseEntity.ok().headers(headers).body(Flux.fromIterable(page));
+                }
+            );
+    }
+
+    static String encodeCursor(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decodeCursor(String cursor, String entityName) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+        }
+    }
+
+    static void addNextPageHeaders(HttpHeaders headers, ServerHttpRequest request, String nextCursor, int size) {
+        String nextUri = UriComponentsBuilder
+            .fromHttpRequest(request)
+            .replaceQueryParam("cursor", nextCursor)
+            .replaceQueryParam("size", size)
+            .toUriString();
+        headers.add(NEXT_CURSOR_HEADER, nextCursor);
+        headers.add(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+    }
+}
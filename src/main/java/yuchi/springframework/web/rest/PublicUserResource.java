@@ -42,14 +42,31 @@ public class PublicUserResource {
      *
      * @param request a {@link ServerHttpRequest} request.
      * @param pageable the pagination information.
+     * @param count whether to count the users for the {@code X-Total-Count} header; when {@code false}, the users are paged
+     * by login with the {@code X-Next-Cursor} header instead, in pages of at most 100 users.
+     * @param cursor the cursor of the page to get, as returned by the {@code X-Next-Cursor} header.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
-    public Mono<ResponseEntity<Flux<UserDTO>>> getAllPublicUsers(ServerHttpRequest request, Pageable pageable) {
+    public Mono<ResponseEntity<Flux<UserDTO>>> getAllPublicUsers(
+        ServerHttpRequest request,
+        Pageable pageable,
+        @RequestParam(value = "count", defaultValue = "true") boolean count,
+        @RequestParam(value = "cursor", required = false) String cursor
+    ) {
         log.debug("REST request to get all public User names");
         if (!onlyContainsAllowedProperties(pageable)) {
             return Mono.just(ResponseEntity.badRequest().build());
         }
+        if (!count || cursor != null) {
+            String afterLogin = cursor == null ? null : CursorPaginationUtil.decodeCursor(cursor, "user");
+            return CursorPaginationUtil.getPage(
+                request,
+                pageable.getPageSize(),
+                limit -> userService.getAllPublicUsers(afterLogin, limit),
+                UserDTO::getLogin
+            );
+        }
 
         return userService
             .countManagedUsers()
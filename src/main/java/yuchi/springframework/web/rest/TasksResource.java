@@ -2,23 +2,36 @@ package yuchi.springframework.web.rest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.reactive.ResponseUtil;
 import yuchi.springframework.domain.Tasks;
+import yuchi.springframework.repository.TasksFilter;
 import yuchi.springframework.repository.TasksRepository;
+import yuchi.springframework.service.TasksBulkService;
+import yuchi.springframework.service.TasksCacheService;
+import yuchi.springframework.service.TasksChangeStreamService;
+import yuchi.springframework.service.dto.TasksBulkOperation;
+import yuchi.springframework.service.dto.TasksBulkResult;
+import yuchi.springframework.service.dto.TasksChangeDTO;
 import yuchi.springframework.web.rest.errors.BadRequestAlertException;
 
 /**
@@ -32,13 +45,37 @@ public class TasksResource {
 
     private static final String ENTITY_NAME = "tasks";
 
+    static final String NEXT_CURSOR_HEADER = CursorPaginationUtil.NEXT_CURSOR_HEADER;
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+
+    static final int MAX_PAGE_SIZE = CursorPaginationUtil.MAX_PAGE_SIZE;
+
+    static final int BULK_CHUNK_SIZE = 500;
+
+    private static final int BULK_CONCURRENCY = 2;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final TasksRepository tasksRepository;
 
-    public TasksResource(TasksRepository tasksRepository) {
+    private final TasksChangeStreamService tasksChangeStreamService;
+
+    private final TasksCacheService tasksCacheService;
+
+    private final TasksBulkService tasksBulkService;
+
+    public TasksResource(
+        TasksRepository tasksRepository,
+        TasksChangeStreamService tasksChangeStreamService,
+        TasksCacheService tasksCacheService,
+        TasksBulkService tasksBulkService
+    ) {
         this.tasksRepository = tasksRepository;
+        this.tasksChangeStreamService = tasksChangeStreamService;
+        this.tasksCacheService = tasksCacheService;
+        this.tasksBulkService = tasksBulkService;
     }
 
     /**
@@ -67,22 +104,55 @@ public class TasksResource {
                         throw new RuntimeException(e);
                     }
                 }
-            );
+            )
+            .checkpoint("POST /api/tasks");
+    }
+
+    /**
+     * {@code POST  /tasks/_bulk} : Create, update and delete tasks in bulk.
+     * <p>
+     * The operations are read as a stream of newline delimited JSON documents, and applied in unordered bulk writes of
+     * {@link #BULK_CHUNK_SIZE} operations.
+     *
+     * @param operations the operations to apply.
+     * @return the result of each operation, in the order of the operations.
+     */
+    @PostMapping(value = "/tasks/_bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TasksBulkResult> bulkTasks(@RequestBody Flux<TasksBulkOperation> operations) {
+        log.debug("REST request to apply a bulk of Tasks operations");
+        return operations
+            .buffer(BULK_CHUNK_SIZE)
+            .flatMapSequential(tasksBulkService::bulkWrite, BULK_CONCURRENCY)
+            .doOnNext(
+                result -> {
+                    if (result.getId() != null) {
+                        tasksCacheService.evict(result.getId());
+                    }
+                }
+            )
+            .index((index, result) -> result.index(index))
+            .checkpoint("POST /api/tasks/_bulk");
     }
 
     /**
      * {@code PUT  /tasks/:id} : Updates an existing tasks.
      *
      * @param id the id of the tasks to save.
+     * @param ifMatch the optional {@code If-Match} header, holding the {@code ETag} of the version of the tasks to update.
      * @param tasks the tasks to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated tasks,
      * or with status {@code 400 (Bad Request)} if the tasks is not valid,
+     * or with status {@code 404 (Not Found)} if the tasks is not found,
+     * or with status {@code 412 (Precondition Failed)} if the tasks is not at the version given by {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the tasks couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/tasks/{id}")
-    public Mono<ResponseEntity<Tasks>> updateTasks(@PathVariable(value = "id", required = false) final String id, @RequestBody Tasks tasks)
-        throws URISyntaxException {
+    public Mono<ResponseEntity<Tasks>> updateTasks(
+        @PathVariable(value = "id", required = false) final String id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) List<String> ifMatch,
+        @RequestBody Tasks tasks
+    ) throws URISyntaxException {
         log.debug("REST request to update Tasks : {}, {}", id, tasks);
         if (tasks.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -92,41 +162,39 @@ public class TasksResource {
         }
 
         return tasksRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    return tasksRepository
-                        .save(tasks)
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            result ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId()))
-                                    .body(result)
-                        );
-                }
-            );
+            .update(tasks, parseIfMatch(ifMatch))
+            // Evicted before the response is emitted, so that a read following it never gets the cached previous version
+            .doOnTerminate(() -> tasksCacheService.evict(tasks.getId()))
+            .doOnCancel(() -> tasksCacheService.evict(tasks.getId()))
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .eTag(createETag(result))
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId()))
+                        .body(result)
+            )
+            .checkpoint("PUT /api/tasks/{id}");
     }
 
     /**
      * {@code PATCH  /tasks/:id} : Partial updates given fields of an existing tasks, field will ignore if it is null
      *
      * @param id the id of the tasks to save.
+     * @param ifMatch the optional {@code If-Match} header, holding the {@code ETag} of the version of the tasks to update.
      * @param tasks the tasks to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated tasks,
      * or with status {@code 400 (Bad Request)} if the tasks is not valid,
      * or with status {@code 404 (Not Found)} if the tasks is not found,
+     * or with status {@code 412 (Precondition Failed)} if the tasks is not at the version given by {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the tasks couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/tasks/{id}", consumes = "application/merge-patch+json")
     public Mono<ResponseEntity<Tasks>> partialUpdateTasks(
         @PathVariable(value = "id", required = false) final String id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) List<String> ifMatch,
         @RequestBody Tasks tasks
     ) throws URISyntaxException {
         log.debug("REST request to partial update Tasks partially : {}, {}", id, tasks);
@@ -138,55 +206,124 @@ public class TasksResource {
         }
 
         return tasksRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
+            .partialUpdate(tasks, parseIfMatch(ifMatch))
+            .doOnTerminate(() -> tasksCacheService.evict(tasks.getId()))
+            .doOnCancel(() -> tasksCacheService.evict(tasks.getId()))
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .eTag(createETag(result))
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId()))
+                        .body(result)
+            )
+            .checkpoint("PATCH /api/tasks/{id}");
+    }
 
-                    Mono<Tasks> result = tasksRepository
-                        .findById(tasks.getId())
-                        .map(
-                            existingTasks -> {
-                                if (tasks.getName() != null) {
-                                    existingTasks.setName(tasks.getName());
-                                }
-                                if (tasks.getDueDate() != null) {
-                                    existingTasks.setDueDate(tasks.getDueDate());
-                                }
-                                if (tasks.getCompleted() != null) {
-                                    existingTasks.setCompleted(tasks.getCompleted());
-                                }
-
-                                return existingTasks;
-                            }
-                        )
-                        .flatMap(tasksRepository::save);
-
-                    return result
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            res ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId()))
-                                    .body(res)
-                        );
+    /**
+     * {@code GET  /tasks} : get a page of the tasks matching the optional filters, ordered by id.
+     * <p>
+     * Pages are seeked on {@code _id} rather than skipped, so every page costs the same whatever its position.
+     * The cursor of the next page is returned in the {@code X-Next-Cursor} and {@code Link} headers, and is absent on the last page.
+     * The page is read in a single query, with one more tasks telling whether there is a next page.
+     * <p>
+     * The {@code application/json} page is collected before being written, to be tagged with the versions of its tasks,
+     * so it is not streamed: its memory is bounded by {@link CursorPaginationUtil#MAX_PAGE_SIZE} instead. The whole
+     * collection is streamed, in constant memory, by the {@code application/x-ndjson} variant {@link #getAllTasksAsStream()}.
+     *
+     * @param request a {@link ServerHttpRequest} request.
+     * @param cursor the opaque cursor returned with the previous page, or {@code null} for the first page.
+     * @param size the page size, capped to {@link CursorPaginationUtil#MAX_PAGE_SIZE}.
+     * @param completed if set, only return the tasks with this completion status.
+     * @param dueDateFrom if set, only return the tasks due on or after this date.
+     * @param dueDateTo if set, only return the tasks due on or before this date.
+     * @param namePrefix if set, only return the tasks whose name starts with this prefix.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of tasks in body,
+     * or with status {@code 304 (Not Modified)} if the {@code If-None-Match} header matches the versions of the page,
+     * or with status {@code 400 (Bad Request)} if the cursor or the due date range is not valid.
+     */
+    @GetMapping("/tasks")
+    public Mono<ResponseEntity<List<Tasks>>> getAllTasks(
+        ServerHttpRequest request,
+        @RequestParam(value = "cursor", required = false) String cursor,
+        @RequestParam(value = "size", required = false) Integer size,
+        @RequestParam(value = "completed", required = false) Boolean completed,
+        @RequestParam(value = "dueDateFrom", required = false) LocalDate dueDateFrom,
+        @RequestParam(value = "dueDateTo", required = false) LocalDate dueDateTo,
+        @RequestParam(value = "namePrefix", required = false) String namePrefix
+    ) {
+        TasksFilter filter = new TasksFilter().completed(completed).dueDateFrom(dueDateFrom).dueDateTo(dueDateTo).namePrefix(namePrefix);
+        log.debug("REST request to get a page of Tasks after cursor : {}, {}", cursor, filter);
+        if (dueDateFrom != null && dueDateTo != null && dueDateFrom.isAfter(dueDateTo)) {
+            throw new BadRequestAlertException("Invalid due date range", ENTITY_NAME, "duedaterangeinvalid");
+        }
+        int limit = size == null ? DEFAULT_PAGE_SIZE : CursorPaginationUtil.pageSize(size);
+        String afterId = cursor == null ? null : CursorPaginationUtil.decodeCursor(cursor, ENTITY_NAME);
+        // One more tasks than the page size tells whether there is a next page
+        return tasksRepository
+            .findAllByFilter(filter, afterId, limit + 1)
+            .collectList()
+            .map(
+                tasksList -> {
+                    HttpHeaders headers = new HttpHeaders();
+                    List<Tasks> page = tasksList.size() > limit ? tasksList.subList(0, limit) : tasksList;
+                    if (tasksList.size() > limit) {
+                        String nextCursor = CursorPaginationUtil.encodeCursor(page.get(limit - 1).getId());
+                        CursorPaginationUtil.addNextPageHeaders(headers, request, nextCursor, limit);
+                    }
+                    headers.setETag(createPageETag(page));
+                    return ResponseEntity.ok().headers(headers).body(page);
                 }
-            );
+            )
+            .checkpoint("GET /api/tasks");
+    }
+
+    private static String createETag(Tasks tasks) {
+        return "\"" + Objects.requireNonNullElse(tasks.getVersion(), 0L) + "\"";
     }
 
     /**
-     * {@code GET  /tasks} : get all the tasks.
+     * Tags a page with the ids and versions of its tasks.
+     * <p>
+     * The tag is weak as it tags the versions of the tasks rather than the bytes of the body.
+     */
+    private static String createPageETag(List<Tasks> page) {
+        StringBuilder builder = new StringBuilder();
+        page.forEach(tasks -> builder.append(tasks.getId()).append(':').append(tasks.getVersion()).append(','));
+        return "W/\"" + DigestUtils.md5DigestAsHex(builder.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Parses the version expected by an {@code If-Match} header.
+     * <p>
+     * The header may list several tags, in one or several values: as a tasks has a single version, the only one of them
+     * which can match is the current one, so the update is made conditional on it by trying each listed version.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of tasks in body.
+     * @return the expected versions, {@code null} if any version matches, or an empty list if no version can match.
      */
-    @GetMapping("/tasks")
-    public Mono<List<Tasks>> getAllTasks() {
-        log.debug("REST request to get all Tasks");
-        System.out.println("-----------------------------"+tasksRepository.findAll().collectList().toString());
-        return tasksRepository.findAll().collectList();
+    private static List<Long> parseIfMatch(List<String> ifMatch) {
+        if (ifMatch == null || ifMatch.isEmpty()) {
+            return null;
+        }
+        List<Long> versions = new ArrayList<>();
+        for (String value : ifMatch) {
+            for (String etag : value.split(",")) {
+                etag = etag.trim();
+                if ("*".equals(etag)) {
+                    return null;
+                }
+                // If-Match uses the strong comparison, so weak tags never match
+                if (etag.length() > 2 && etag.startsWith("\"") && etag.endsWith("\"")) {
+                    try {
+                        versions.add(Long.parseLong(etag.substring(1, etag.length() - 1)));
+                    } catch (NumberFormatException e) {
+                        // Not one of our tags, so it can't match
+                    }
+                }
+            }
+        }
+        return versions;
     }
 
     /**
@@ -199,17 +336,62 @@ public class TasksResource {
         return tasksRepository.findAll();
     }
 
+    /**
+     * {@code GET  /tasks/changes} : get the live changes of the tasks as Server-Sent Events.
+     * <p>
+     * Each event carries the resume token of its change as ID, so reconnecting clients sending the {@code Last-Event-ID}
+     * header only get the changes they missed.
+     *
+     * @param lastEventId the resume token of the last change received, if any.
+     * @param resumeToken the resume token of the last change received, for clients which can't send headers.
+     * @return the {@link Flux} of changes.
+     */
+    @GetMapping(value = "/tasks/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<TasksChangeDTO>> getTasksChangesAsEvents(
+        @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+        @RequestParam(required = false) String resumeToken
+    ) {
+        log.debug("REST request to get Tasks changes as Server-Sent Events");
+        return getChanges(lastEventId != null ? lastEventId : resumeToken)
+            .map(change -> ServerSentEvent.builder(change).id(change.getResumeToken()).event(change.getOperation()).build());
+    }
+
+    /**
+     * {@code GET  /tasks/changes} : get the live changes of the tasks as a stream.
+     *
+     * @param resumeToken the resume token of the last change received, if any.
+     * @return the {@link Flux} of changes.
+     */
+    @GetMapping(value = "/tasks/changes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TasksChangeDTO> getTasksChangesAsStream(@RequestParam(required = false) String resumeToken) {
+        log.debug("REST request to get Tasks changes as a stream");
+        return getChanges(resumeToken);
+    }
+
+    private Flux<TasksChangeDTO> getChanges(String resumeToken) {
+        try {
+            return tasksChangeStreamService.getChanges(resumeToken);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid resume token", ENTITY_NAME, "resumetokeninvalid");
+        }
+    }
+
     /**
      * {@code GET  /tasks/:id} : get the "id" tasks.
      *
      * @param id the id of the tasks to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the tasks, or with status {@code 404 (Not Found)}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the tasks, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} if the {@code If-None-Match} header matches the version of the tasks.
      */
     @GetMapping("/tasks/{id}")
     public Mono<ResponseEntity<Tasks>> getTasks(@PathVariable String id) {
         log.debug("REST request to get Tasks : {}", id);
-        Mono<Tasks> tasks = tasksRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(tasks);
+        // A matching If-None-Match ends the exchange with 304 (Not Modified), without serializing the tasks
+        return tasksCacheService
+            .findById(id)
+            .map(tasks -> ResponseEntity.ok().eTag(createETag(tasks)).body(tasks))
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .checkpoint("GET /api/tasks/{id}");
     }
 
     /**
@@ -224,12 +406,15 @@ public class TasksResource {
         log.debug("REST request to delete Tasks : {}", id);
         return tasksRepository
             .deleteById(id)
+            .doOnTerminate(() -> tasksCacheService.evict(id))
+            .doOnCancel(() -> tasksCacheService.evict(id))
             .map(
                 result ->
                     ResponseEntity
                         .noContent()
                         .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id))
                         .build()
-            );
+            )
+            .checkpoint("DELETE /api/tasks/{id}");
     }
 }
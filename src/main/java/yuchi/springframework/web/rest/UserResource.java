@@ -103,29 +103,11 @@ public class UserResource {
 
         if (userDTO.getId() != null) {
             throw new BadRequestAlertException("A new user cannot already have an ID", "userManagement", "idexists");
-            // Lowercase the user login before comparing with database
         }
-        return userRepository
-            .findOneByLogin(userDTO.getLogin().toLowerCase())
-            .hasElement()
-            .flatMap(
-                loginExists -> {
-                    if (Boolean.TRUE.equals(loginExists)) {
-                        return Mono.error(new LoginAlreadyUsedException());
-                    }
-                    return userRepository.findOneByEmailIgnoreCase(userDTO.getEmail());
-                }
-            )
-            .hasElement()
-            .flatMap(
-                emailExists -> {
-                    if (Boolean.TRUE.equals(emailExists)) {
-                        return Mono.error(new EmailAlreadyUsedException());
-                    }
-                    return userService.createUser(userDTO);
-                }
-            )
-            .doOnSuccess(mailService::sendCreationEmail)
+        // The unique indexes on login and email reject the user if either is already used
+        return userService
+            .createUser(userDTO)
+            .flatMap(user -> mailService.sendCreationEmail(user).thenReturn(user))
             .map(
                 user -> {
                     try {
@@ -153,7 +135,7 @@ public class UserResource {
     public Mono<ResponseEntity<AdminUserDTO>> updateUser(@Valid @RequestBody AdminUserDTO userDTO) {
         log.debug("REST request to update User : {}", userDTO);
         return userRepository
-            .findOneByEmailIgnoreCase(userDTO.getEmail())
+            .findOneByEmailNormalized(userDTO.getEmail())
             .filter(user -> !user.getId().equals(userDTO.getId()))
             .hasElement()
             .flatMap(
@@ -189,15 +171,32 @@ public class UserResource {
      *
      * @param request a {@link ServerHttpRequest} request.
      * @param pageable the pagination information.
+     * @param count whether to count the users for the {@code X-Total-Count} header; when {@code false}, the users are paged
+     * by login with the {@code X-Next-Cursor} header instead, in pages of at most 100 users.
+     * @param cursor the cursor of the page to get, as returned by the {@code X-Next-Cursor} header.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
-    public Mono<ResponseEntity<Flux<AdminUserDTO>>> getAllUsers(ServerHttpRequest request, Pageable pageable) {
+    public Mono<ResponseEntity<Flux<AdminUserDTO>>> getAllUsers(
+        ServerHttpRequest request,
+        Pageable pageable,
+        @RequestParam(value = "count", defaultValue = "true") boolean count,
+        @RequestParam(value = "cursor", required = false) String cursor
+    ) {
         log.debug("REST request to get all User for an admin");
         if (!onlyContainsAllowedProperties(pageable)) {
             return Mono.just(ResponseEntity.badRequest().build());
         }
+        if (!count || cursor != null) {
+            String afterLogin = cursor == null ? null : CursorPaginationUtil.decodeCursor(cursor, "userManagement");
+            return CursorPaginationUtil.getPage(
+                request,
+                pageable.getPageSize(),
+                limit -> userService.getAllManagedUsers(afterLogin, limit),
+                AdminUserDTO::getLogin
+            );
+        }
 
         return userService
             .countManagedUsers()
@@ -0,0 +1,87 @@
+package yuchi.springframework.aop.logging;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ch.qos.logback.classic.Level;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Flux;
+import yuchi.springframework.config.ApplicationProperties;
+import yuchi.springframework.domain.Authority;
+import yuchi.springframework.repository.AuthorityRepository;
+import yuchi.springframework.security.AuthoritiesConstants;
+import yuchi.springframework.service.AuthorityRegistry;
+
+/**
+ * Benchmark of the overhead of {@link LoggingAspect} on a reactive service method, with the logger of the service at
+ * info level, as in production, and at debug level, for all the calls or 1% of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingAspectBenchmark {
+
+    @Param({ "INFO", "DEBUG" })
+    private String level;
+
+    private AuthorityRegistry authorityRegistry;
+
+    private AuthorityRegistry advisedAuthorityRegistry;
+
+    private AuthorityRegistry sampledAuthorityRegistry;
+
+    @Setup
+    public void setup() {
+        Authority authority = new Authority();
+        authority.setName(AuthoritiesConstants.USER);
+        AuthorityRepository authorityRepository = mock(AuthorityRepository.class);
+        when(authorityRepository.findAll()).thenReturn(Flux.just(authority));
+        authorityRegistry = new AuthorityRegistry(authorityRepository);
+
+        advisedAuthorityRegistry = advise(authorityRegistry, 1.0);
+        sampledAuthorityRegistry = advise(authorityRegistry, 0.01);
+
+        // Without appender, so that the formatting of the logged calls is measured, not their output
+        ch.qos.logback.classic.Logger logger = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(AuthorityRegistry.class);
+        logger.setAdditive(false);
+        logger.setLevel(Level.toLevel(level));
+    }
+
+    private static AuthorityRegistry advise(AuthorityRegistry target, double sampleRate) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getLoggingAspect().setSampleRate(sampleRate);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new LoggingAspect(new MockEnvironment(), applicationProperties));
+        return proxyFactory.getProxy();
+    }
+
+    @Benchmark
+    public Authority withoutAspect() {
+        return authorityRegistry.findByName(AuthoritiesConstants.USER).block();
+    }
+
+    @Benchmark
+    public Authority allCalls() {
+        return advisedAuthorityRegistry.findByName(AuthoritiesConstants.USER).block();
+    }
+
+    @Benchmark
+    public Authority sampledCalls() {
+        return sampledAuthorityRegistry.findByName(AuthoritiesConstants.USER).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LoggingAspectBenchmark.class.getSimpleName()).build()).run();
+    }
+}
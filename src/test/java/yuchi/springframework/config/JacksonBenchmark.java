@@ -0,0 +1,122 @@
+package yuchi.springframework.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import yuchi.springframework.domain.Tasks;
+import yuchi.springframework.security.AuthoritiesConstants;
+import yuchi.springframework.service.dto.AdminUserDTO;
+
+/**
+ * Benchmark of the JSON serialization of the response bodies of the tasks and user APIs, with the modules of
+ * {@link JacksonConfiguration} and the defaults of Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonBenchmark {
+
+    // The default page size of the tasks and user APIs
+    private static final int PAGE_SIZE = 20;
+
+    private ObjectMapper objectMapper;
+
+    private Tasks tasks;
+
+    private List<Tasks> tasksPage;
+
+    private AdminUserDTO user;
+
+    private List<AdminUserDTO> usersPage;
+
+    @Setup
+    public void setup() {
+        JacksonConfiguration jacksonConfiguration = new JacksonConfiguration();
+        objectMapper =
+            Jackson2ObjectMapperBuilder
+                .json()
+                .modules(
+                    jacksonConfiguration.javaTimeModule(),
+                    jacksonConfiguration.jdk8TimeModule(),
+                    jacksonConfiguration.problemModule(),
+                    jacksonConfiguration.constraintViolationProblemModule()
+                )
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        tasksPage = new ArrayList<>(PAGE_SIZE);
+        usersPage = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            tasksPage.add(createTasks(i));
+            usersPage.add(createUser(i));
+        }
+        tasks = tasksPage.get(0);
+        user = usersPage.get(0);
+    }
+
+    private static Tasks createTasks(int i) {
+        Tasks tasks = new Tasks();
+        tasks.setId(String.format("60a7c1f2e4b0a1b2c3d4%04x", i));
+        tasks.setName("Task number " + i);
+        tasks.setDueDate(LocalDate.of(2021, 6, 1).plusDays(i));
+        tasks.setCompleted(i % 2 == 0);
+        tasks.setVersion((long) i);
+        return tasks;
+    }
+
+    private static AdminUserDTO createUser(int i) {
+        AdminUserDTO user = new AdminUserDTO();
+        user.setId("user-" + i);
+        user.setLogin("user" + i);
+        user.setFirstName("First" + i);
+        user.setLastName("Last" + i);
+        user.setEmail("user" + i + "@localhost");
+        user.setImageUrl("http://placehold.it/50x50");
+        user.setActivated(true);
+        user.setLangKey(Constants.DEFAULT_LANGUAGE);
+        user.setCreatedBy(Constants.SYSTEM);
+        user.setCreatedDate(Instant.parse("2021-06-01T00:00:00Z"));
+        user.setLastModifiedBy(Constants.SYSTEM);
+        user.setLastModifiedDate(Instant.parse("2021-06-01T00:00:00Z"));
+        user.setAuthorities(Set.of(AuthoritiesConstants.USER));
+        return user;
+    }
+
+    @Benchmark
+    public byte[] serializeTasks() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] serializeTasksPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(tasksPage);
+    }
+
+    @Benchmark
+    public byte[] serializeAdminUserDTO() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] serializeAdminUserDTOPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(usersPage);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JacksonBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,28 @@
+package yuchi.springframework.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link NettyConfiguration}.
+ */
+class NettyConfigurationTest {
+
+    @Test
+    void testUriTagKeepsTheResourceOfTheApi() {
+        assertThat(NettyConfiguration.uriTag("/api/tasks/5f1e6c3b2a")).isEqualTo("/api/tasks");
+        assertThat(NettyConfiguration.uriTag("/api/tasks?page=2&size=20")).isEqualTo("/api/tasks");
+        assertThat(NettyConfiguration.uriTag("/api/admin/users/john")).isEqualTo("/api/admin");
+        assertThat(NettyConfiguration.uriTag("/management/health")).isEqualTo("/management");
+    }
+
+    @Test
+    void testUriTagGroupsUnknownUris() {
+        assertThat(NettyConfiguration.uriTag("/api/unknown/5f1e6c3b2a")).isEqualTo(NettyConfiguration.OTHER_URI_TAG);
+        assertThat(NettyConfiguration.uriTag("/wp-admin/setup-config.php")).isEqualTo(NettyConfiguration.OTHER_URI_TAG);
+        assertThat(NettyConfiguration.uriTag("/api")).isEqualTo(NettyConfiguration.OTHER_URI_TAG);
+        assertThat(NettyConfiguration.uriTag("/managementx")).isEqualTo(NettyConfiguration.OTHER_URI_TAG);
+        assertThat(NettyConfiguration.uriTag("/")).isEqualTo(NettyConfiguration.OTHER_URI_TAG);
+    }
+}
@@ -1,11 +1,12 @@
 package yuchi.springframework.config;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Mono;
 import yuchi.springframework.service.MailService;
 
 @Configuration
@@ -15,7 +16,9 @@ public class NoOpMailConfiguration {
 
     public NoOpMailConfiguration() {
         mockMailService = mock(MailService.class);
-        doNothing().when(mockMailService).sendActivationEmail(any());
+        when(mockMailService.sendActivationEmail(any())).thenReturn(Mono.empty());
+        when(mockMailService.sendCreationEmail(any())).thenReturn(Mono.empty());
+        when(mockMailService.sendPasswordResetMail(any())).thenReturn(Mono.empty());
     }
 
     @Bean
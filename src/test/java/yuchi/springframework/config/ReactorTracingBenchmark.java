@@ -0,0 +1,86 @@
+package yuchi.springframework.config;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import yuchi.springframework.domain.Tasks;
+import yuchi.springframework.repository.TasksRepository;
+import yuchi.springframework.service.TasksBulkService;
+import yuchi.springframework.service.TasksCacheService;
+import yuchi.springframework.service.TasksChangeStreamService;
+import yuchi.springframework.web.rest.TasksResource;
+
+/**
+ * Benchmark of the overhead of each {@link ApplicationProperties.Reactor.TracingMode} on the pipelines of
+ * {@link TasksResource}, which are assembled for each request.
+ * <p>
+ * Each mode runs in its own fork, as the debug agent can't be turned off once installed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReactorTracingBenchmark {
+
+    private static final String ID = "60a7c1f2e4b0a1b2c3d4e5f6";
+
+    private static final String MISSING_ID = "60a7c1f2e4b0a1b2c3d4e5f7";
+
+    @Param({ "NONE", "AGENT", "OPERATOR_DEBUG" })
+    private ApplicationProperties.Reactor.TracingMode tracingMode;
+
+    private TasksResource tasksResource;
+
+    private Tasks tasks;
+
+    @Setup
+    public void setup() {
+        ReactorConfiguration.configureTracing(tracingMode);
+
+        tasks = new Tasks();
+        tasks.setId(ID);
+        tasks.setName("name");
+        tasks.setVersion(1L);
+        TasksRepository tasksRepository = mock(TasksRepository.class);
+        when(tasksRepository.partialUpdate(any(Tasks.class), any())).thenAnswer(invocation -> Mono.just(tasks));
+        TasksCacheService tasksCacheService = mock(TasksCacheService.class);
+        when(tasksCacheService.findById(anyString())).thenAnswer(invocation -> Mono.empty());
+        when(tasksCacheService.findById(eq(ID))).thenAnswer(invocation -> Mono.just(tasks));
+        tasksResource =
+            new TasksResource(tasksRepository, mock(TasksChangeStreamService.class), tasksCacheService, mock(TasksBulkService.class));
+    }
+
+    @Benchmark
+    public ResponseEntity<Tasks> getTasks() {
+        return tasksResource.getTasks(ID).block();
+    }
+
+    /**
+     * The error path, where the checkpoints and the assembly sites are added to the exception.
+     */
+    @Benchmark
+    public ResponseEntity<Tasks> getMissingTasks() {
+        return tasksResource.getTasks(MISSING_ID).onErrorResume(e -> Mono.empty()).block();
+    }
+
+    @Benchmark
+    public ResponseEntity<Tasks> partialUpdateTasks() throws Exception {
+        return tasksResource.partialUpdateTasks(ID, null, tasks).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ReactorTracingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,72 @@
+package yuchi.springframework.config.metric;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link HotPaths}.
+ */
+class HotPathsTest {
+
+    private static final Duration WINDOW = Duration.ofSeconds(10);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private HotPaths hotPaths;
+
+    @BeforeEach
+    public void setup() {
+        clock.set(TimeUnit.HOURS.toNanos(1));
+        hotPaths = new HotPaths(WINDOW, 2, clock::get);
+    }
+
+    @Test
+    void testSlowestPathsAreSortedByMeanLatency() {
+        hotPaths.record(HotPaths.Kind.ROUTE, "GET /api/tasks", millis(10), false);
+        hotPaths.record(HotPaths.Kind.ROUTE, "GET /api/tasks", millis(30), true);
+        hotPaths.record(HotPaths.Kind.ROUTE, "GET /api/tasks/{id}", millis(5), false);
+        hotPaths.record(HotPaths.Kind.ROUTE, "POST /api/tasks", millis(50), false);
+        hotPaths.record(HotPaths.Kind.QUERY, "find task", millis(100), false);
+
+        assertThat(hotPaths.getSlowest(HotPaths.Kind.ROUTE))
+            .extracting(HotPaths.HotPath::getName)
+            .containsExactly("POST /api/tasks", "GET /api/tasks");
+        HotPaths.HotPath tasks = hotPaths.getSlowest(HotPaths.Kind.ROUTE).get(1);
+        assertThat(tasks.getCount()).isEqualTo(2);
+        assertThat(tasks.getFailures()).isEqualTo(1);
+        assertThat(tasks.getMeanMillis()).isEqualTo(20);
+        assertThat(tasks.getMaxMillis()).isEqualTo(30);
+        assertThat(tasks.getTotalMillis()).isEqualTo(40);
+        assertThat(hotPaths.getSlowest(HotPaths.Kind.QUERY)).extracting(HotPaths.HotPath::getName).containsExactly("find task");
+    }
+
+    @Test
+    void testPathsAreMergedAcrossSlots() {
+        hotPaths.record(HotPaths.Kind.QUERY, "find task", millis(10), false);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        hotPaths.record(HotPaths.Kind.QUERY, "find task", millis(20), false);
+
+        HotPaths.HotPath findTask = hotPaths.getSlowest(HotPaths.Kind.QUERY).get(0);
+        assertThat(findTask.getCount()).isEqualTo(2);
+        assertThat(findTask.getMeanMillis()).isEqualTo(15);
+    }
+
+    @Test
+    void testPathsExpireWithTheWindow() {
+        hotPaths.record(HotPaths.Kind.ROUTE, "GET /api/tasks", millis(10), false);
+        clock.addAndGet(WINDOW.toNanos());
+        hotPaths.record(HotPaths.Kind.ROUTE, "GET /api/tasks/{id}", millis(10), false);
+
+        assertThat(hotPaths.getSlowest(HotPaths.Kind.ROUTE)).extracting(HotPaths.HotPath::getName).containsExactly("GET /api/tasks/{id}");
+        assertThat(hotPaths.getWindow()).isEqualTo(WINDOW);
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,91 @@
+package yuchi.springframework.config.metric;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.bson.BsonArray;
+import org.bson.BsonBoolean;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link MongoCommandMetrics}.
+ */
+class MongoCommandMetricsTest {
+
+    private static final ConnectionDescription CONNECTION = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    private static final long CURSOR_ID = 42;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private HotPaths hotPaths;
+
+    private MongoCommandMetrics mongoCommandMetrics;
+
+    private int requestId;
+
+    @BeforeEach
+    public void setup() {
+        hotPaths = new HotPaths(Duration.ofMinutes(1), 10);
+        mongoCommandMetrics = new MongoCommandMetrics(meterRegistry, hotPaths);
+    }
+
+    @Test
+    void testGetMoreOfAChangeStreamIsNotAHotPath() {
+        BsonDocument changeStream = new BsonDocument("$changeStream", new BsonDocument());
+        execute(
+            "aggregate",
+            new BsonDocument("aggregate", new BsonString("tasks")).append("pipeline", new BsonArray(List.of(changeStream))),
+            CURSOR_ID
+        );
+        execute("getMore", getMore(CURSOR_ID), CURSOR_ID);
+
+        assertThat(hotPaths.getSlowest(HotPaths.Kind.QUERY)).extracting(HotPaths.HotPath::getName).containsExactly("aggregate tasks");
+        assertThat(meterRegistry.find(MongoCommandMetrics.TIMER_NAME).tag("command", "getMore").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testGetMoreOfAFindIsAHotPath() {
+        execute("find", new BsonDocument("find", new BsonString("tasks")), CURSOR_ID);
+        execute("getMore", getMore(CURSOR_ID), 0);
+
+        assertThat(hotPaths.getSlowest(HotPaths.Kind.QUERY))
+            .extracting(HotPaths.HotPath::getName)
+            .containsExactlyInAnyOrder("find tasks", "getMore tasks");
+    }
+
+    @Test
+    void testGetMoreOfAClosedTailableCursorIsAHotPath() {
+        execute("find", new BsonDocument("find", new BsonString("tasks")).append("tailable", BsonBoolean.TRUE), CURSOR_ID);
+        execute("getMore", getMore(CURSOR_ID), 0);
+        // The cursor id was closed, and may be reused by a cursor that doesn't wait
+        execute("getMore", getMore(CURSOR_ID), 0);
+
+        assertThat(hotPaths.getSlowest(HotPaths.Kind.QUERY)).extracting(HotPaths.HotPath::getName).contains("getMore tasks");
+    }
+
+    private static BsonDocument getMore(long cursorId) {
+        return new BsonDocument("getMore", new BsonInt64(cursorId)).append("collection", new BsonString("tasks"));
+    }
+
+    private void execute(String commandName, BsonDocument command, long replyCursorId) {
+        requestId++;
+        mongoCommandMetrics.commandStarted(new CommandStartedEvent(requestId, CONNECTION, "test", commandName, command));
+        BsonDocument response = new BsonDocument("cursor", new BsonDocument("id", new BsonInt64(replyCursorId)))
+            .append("ok", new BsonInt32(1));
+        mongoCommandMetrics.commandSucceeded(new CommandSucceededEvent(requestId, CONNECTION, commandName, response, 1_000_000));
+    }
+}
@@ -0,0 +1,157 @@
+package yuchi.springframework.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import yuchi.springframework.TasksAppMongoApp;
+import yuchi.springframework.config.Constants;
+import yuchi.springframework.domain.Authority;
+import yuchi.springframework.domain.Tasks;
+import yuchi.springframework.domain.User;
+import yuchi.springframework.security.AuthoritiesConstants;
+
+/**
+ * Load test harness: starts the application with the "loadtest" profile against an embedded Mongo, seeds it with users
+ * and tasks, and drives a mixed workload through {@link WebClient}.
+ * <p>
+ * It first compares the creation of tasks one request at a time with a bulk request, then runs the virtual users
+ * during a warm-up and a measured period, and prints the throughput and the latency histograms of each endpoint. The
+ * report is also written as JSON, to compare changes. Run it with {@code ./mvnw -Ploadtest}, the parameters being the
+ * {@code loadtest.*} properties of that profile.
+ * <p>
+ * The load is generated in the JVM of the application, so the numbers are best compared between runs on the same
+ * machine rather than taken as the capacity of a deployment.
+ */
+public final class LoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final String PASSWORD = "loadtest";
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws IOException {
+        int users = Integer.getInteger("loadtest.users", 100);
+        int tasks = Integer.getInteger("loadtest.tasks", 10000);
+        int concurrency = Integer.getInteger("loadtest.concurrency", 64);
+        int ingestTasks = Integer.getInteger("loadtest.ingest-tasks", 10000);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 10));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 60));
+        File reportFile = new File(System.getProperty("loadtest.report", "target/loadtest-report.json"));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TasksAppMongoApp.class).profiles("loadtest").run(args);
+        try {
+            ReactiveMongoTemplate mongoTemplate = context.getBean(ReactiveMongoTemplate.class);
+            seedUsers(mongoTemplate, context.getBean(PasswordEncoder.class).encode(PASSWORD), users);
+            List<String> taskIds = seedTasks(mongoTemplate, tasks);
+            log.info("Seeded {} users and {} tasks", users, tasks);
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            ConnectionProvider connectionProvider = ConnectionProvider.builder("loadtest").maxConnections(concurrency).build();
+            WebClient webClient = context
+                .getBean(WebClient.Builder.class)
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .build();
+            LoadTestReport report = new LoadTestReport(duration);
+            Workload workload = new Workload(webClient, report, taskIds, PASSWORD);
+
+            runIngest(workload, report, ingestTasks, concurrency);
+
+            log.info("Running {} virtual users, {} warm-up and {} measured", concurrency, warmup, duration);
+            Flux
+                .range(0, concurrency)
+                .flatMap(i -> workload.runUser(login(i % users), warmup.plus(duration)), concurrency)
+                .mergeWith(Mono.delay(warmup).doOnNext(tick -> report.start()).then())
+                .mergeWith(Mono.delay(warmup.plus(duration)).doOnNext(tick -> report.stop()).then())
+                .blockLast();
+
+            report.print(System.out);
+            Map<String, Object> parameters = new LinkedHashMap<>();
+            parameters.put("users", users);
+            parameters.put("tasks", tasks);
+            parameters.put("concurrency", concurrency);
+            parameters.put("warmupSeconds", warmup.toSeconds());
+            parameters.put("durationSeconds", duration.toSeconds());
+            report.write(reportFile, parameters);
+            log.info("Report written to {}", reportFile.getAbsolutePath());
+            connectionProvider.dispose();
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void runIngest(Workload workload, LoadTestReport report, int count, int concurrency) {
+        if (count <= 0) {
+            return;
+        }
+        String token = workload.authenticate(login(0)).block();
+        long start = System.nanoTime();
+        long created = workload.createOneByOne(token, count, concurrency).block();
+        report.recordIngest("oneByOne", (int) created, System.nanoTime() - start);
+        start = System.nanoTime();
+        created = workload.createInBulk(token, count).block();
+        report.recordIngest("bulk", (int) created, System.nanoTime() - start);
+    }
+
+    private static String login(int user) {
+        return "loadtest-user-" + user;
+    }
+
+    private static void seedUsers(ReactiveMongoTemplate mongoTemplate, String passwordHash, int count) {
+        // The password is hashed once, as hashing it for each user would take longer than the test
+        Authority userAuthority = new Authority();
+        userAuthority.setName(AuthoritiesConstants.USER);
+        Flux
+            .range(0, count)
+            .map(
+                i -> {
+                    User user = new User();
+                    user.setLogin(login(i));
+                    user.setPassword(passwordHash);
+                    user.setEmail(login(i) + "@localhost");
+                    user.setActivated(true);
+                    user.setLangKey(Constants.DEFAULT_LANGUAGE);
+                    user.setCreatedBy(Constants.SYSTEM);
+                    user.setAuthorities(Set.of(userAuthority));
+                    return user;
+                }
+            )
+            .buffer(SEED_BATCH_SIZE)
+            .concatMap(batch -> mongoTemplate.insertAll(batch))
+            .blockLast();
+    }
+
+    private static List<String> seedTasks(ReactiveMongoTemplate mongoTemplate, int count) {
+        List<String> ids = new ArrayList<>(count);
+        Flux
+            .range(0, count)
+            .map(i -> Workload.createTasks())
+            .buffer(SEED_BATCH_SIZE)
+            .concatMap(batch -> mongoTemplate.insertAll(batch))
+            .map(Tasks::getId)
+            .doOnNext(ids::add)
+            .blockLast();
+        return ids;
+    }
+}
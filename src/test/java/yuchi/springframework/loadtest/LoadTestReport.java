@@ -0,0 +1,209 @@
+package yuchi.springframework.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencies and errors of the requests of a load test, by endpoint.
+ * <p>
+ * The statistics of the timers span the whole measured run, so that the percentiles are not those of a sliding window.
+ */
+class LoadTestReport {
+
+    private static final double[] PERCENTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    // Upper bounds of the buckets of the latency histograms, in milliseconds
+    private static final long[] BUCKETS_MILLIS = { 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000 };
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private final Map<String, Object> ingest = new LinkedHashMap<>();
+
+    private final Duration duration;
+
+    // Created by start(), as the single window of their statistics begins with them
+    private volatile Map<Workload.Endpoint, Timer> timers = new EnumMap<>(Workload.Endpoint.class);
+
+    private volatile boolean recording;
+
+    LoadTestReport(Duration duration) {
+        this.duration = duration;
+    }
+
+    /**
+     * Starts recording, once the warm-up is over.
+     */
+    void start() {
+        Duration[] buckets = new Duration[BUCKETS_MILLIS.length];
+        for (int i = 0; i < BUCKETS_MILLIS.length; i++) {
+            buckets[i] = Duration.ofMillis(BUCKETS_MILLIS[i]);
+        }
+        Map<Workload.Endpoint, Timer> startedTimers = new EnumMap<>(Workload.Endpoint.class);
+        for (Workload.Endpoint endpoint : Workload.Endpoint.values()) {
+            startedTimers.put(
+                endpoint,
+                Timer
+                    .builder("loadtest.requests")
+                    .tag("endpoint", endpoint.getRoute())
+                    .publishPercentiles(PERCENTILES)
+                    .serviceLevelObjectives(buckets)
+                    // One window over the whole run, and some slack for the requests in flight at its end
+                    .distributionStatisticExpiry(duration.multipliedBy(2))
+                    .distributionStatisticBufferLength(1)
+                    .register(registry)
+            );
+        }
+        timers = startedTimers;
+        recording = true;
+    }
+
+    void stop() {
+        recording = false;
+    }
+
+    void record(Workload.Endpoint endpoint, String status, long nanos) {
+        if (!recording) {
+            return;
+        }
+        timers.get(endpoint).record(nanos, TimeUnit.NANOSECONDS);
+        if (!status.startsWith("2")) {
+            Counter.builder("loadtest.errors").tag("endpoint", endpoint.getRoute()).tag("status", status).register(registry).increment();
+        }
+    }
+
+    void recordIngest(String mode, int tasks, long nanos) {
+        double seconds = nanos / 1e9;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("tasks", tasks);
+        result.put("seconds", seconds);
+        result.put("throughput", tasks / seconds);
+        ingest.put(mode, result);
+    }
+
+    /**
+     * Prints the report as a table.
+     *
+     * @param out the stream to print to.
+     */
+    void print(PrintStream out) {
+        out.println();
+        out.printf(
+            "%-24s %10s %8s %10s %9s %9s %9s %9s %9s %9s%n",
+            "endpoint",
+            "requests",
+            "errors",
+            "req/s",
+            "mean ms",
+            "p50 ms",
+            "p90 ms",
+            "p99 ms",
+            "p99.9 ms",
+            "max ms"
+        );
+        for (Map.Entry<Workload.Endpoint, Timer> entry : timers.entrySet()) {
+            HistogramSnapshot snapshot = entry.getValue().takeSnapshot();
+            ValueAtPercentile[] percentiles = snapshot.percentileValues();
+            out.printf(
+                "%-24s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                entry.getKey().getRoute(),
+                snapshot.count(),
+                errors(entry.getKey()).values().stream().mapToLong(Long::longValue).sum(),
+                snapshot.count() / (double) duration.toSeconds(),
+                snapshot.mean(TimeUnit.MILLISECONDS),
+                percentiles[0].value(TimeUnit.MILLISECONDS),
+                percentiles[1].value(TimeUnit.MILLISECONDS),
+                percentiles[2].value(TimeUnit.MILLISECONDS),
+                percentiles[3].value(TimeUnit.MILLISECONDS),
+                snapshot.max(TimeUnit.MILLISECONDS)
+            );
+        }
+        out.println();
+        out.printf("%-24s", "latency histogram");
+        for (long bucket : BUCKETS_MILLIS) {
+            out.printf(" %7s", "<=" + bucket);
+        }
+        out.printf(" %7s%n", ">" + BUCKETS_MILLIS[BUCKETS_MILLIS.length - 1]);
+        for (Map.Entry<Workload.Endpoint, Timer> entry : timers.entrySet()) {
+            out.printf("%-24s", entry.getKey().getRoute());
+            for (long count : bucketCounts(entry.getValue().takeSnapshot()).values()) {
+                out.printf(" %7d", count);
+            }
+            out.println();
+        }
+        out.println();
+        ingest.forEach((mode, result) -> out.printf("Ingest %-14s %s%n", mode, result));
+    }
+
+    /**
+     * Writes the report as JSON.
+     *
+     * @param file the file to write.
+     * @param parameters the parameters of the load test.
+     * @throws IOException if the file can't be written.
+     */
+    void write(File file, Map<String, Object> parameters) throws IOException {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        timers.forEach(
+            (endpoint, timer) -> {
+                HistogramSnapshot snapshot = timer.takeSnapshot();
+                Map<String, Object> percentiles = new LinkedHashMap<>();
+                for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                    percentiles.put("p" + percentile.percentile() * 100, percentile.value(TimeUnit.MILLISECONDS));
+                }
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("requests", snapshot.count());
+                result.put("errors", errors(endpoint));
+                result.put("throughput", snapshot.count() / (double) duration.toSeconds());
+                result.put("meanMillis", snapshot.mean(TimeUnit.MILLISECONDS));
+                result.put("maxMillis", snapshot.max(TimeUnit.MILLISECONDS));
+                result.put("percentilesMillis", percentiles);
+                result.put("histogramMillis", bucketCounts(snapshot));
+                endpoints.put(endpoint.getRoute(), result);
+            }
+        );
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("parameters", parameters);
+        report.put("endpoints", endpoints);
+        report.put("ingest", ingest);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+    }
+
+    private Map<String, Long> errors(Workload.Endpoint endpoint) {
+        Map<String, Long> errors = new LinkedHashMap<>();
+        registry
+            .find("loadtest.errors")
+            .tag("endpoint", endpoint.getRoute())
+            .counters()
+            .forEach(counter -> errors.put(counter.getId().getTag("status"), (long) counter.count()));
+        return errors;
+    }
+
+    /**
+     * @return the count of requests of each bucket, by upper bound; the counts of the snapshot are cumulative.
+     */
+    private static Map<String, Long> bucketCounts(HistogramSnapshot snapshot) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        double previous = 0;
+        for (CountAtBucket bucket : snapshot.histogramCounts()) {
+            counts.put("<=" + (long) bucket.bucket(TimeUnit.MILLISECONDS), (long) (bucket.count() - previous));
+            previous = bucket.count();
+        }
+        counts.put(">" + BUCKETS_MILLIS[BUCKETS_MILLIS.length - 1], (long) (snapshot.count() - previous));
+        return counts;
+    }
+}
@@ -0,0 +1,263 @@
+package yuchi.springframework.loadtest;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yuchi.springframework.domain.Tasks;
+import yuchi.springframework.service.dto.TasksBulkOperation;
+import yuchi.springframework.service.dto.TasksBulkResult;
+
+/**
+ * The mixed workload of a load test: virtual users log in, then send requests one after the other, each to an endpoint
+ * drawn according to its weight.
+ * <p>
+ * Get and update requests target the seeded tasks, delete requests the tasks created during the run, so that no
+ * request fails for a task deleted by another virtual user.
+ */
+class Workload {
+
+    private static final MediaType MERGE_PATCH_JSON = MediaType.parseMediaType("application/merge-patch+json");
+
+    private static final ParameterizedTypeReference<Map<String, String>> TOKEN_TYPE = new ParameterizedTypeReference<>() {};
+
+    private static final int LOGIN_ATTEMPTS = 10;
+
+    private static final Duration LOGIN_RETRY_DELAY = Duration.ofMillis(100);
+
+    enum Endpoint {
+        LOGIN("POST /api/authenticate", 5),
+        LIST("GET /api/tasks", 30),
+        GET("GET /api/tasks/{id}", 35),
+        CREATE("POST /api/tasks", 10),
+        PATCH("PATCH /api/tasks/{id}", 10),
+        DELETE("DELETE /api/tasks/{id}", 10);
+
+        private final String route;
+
+        private final int weight;
+
+        Endpoint(String route, int weight) {
+            this.route = route;
+            this.weight = weight;
+        }
+
+        String getRoute() {
+            return route;
+        }
+    }
+
+    private static final int TOTAL_WEIGHT = List.of(Endpoint.values()).stream().mapToInt(endpoint -> endpoint.weight).sum();
+
+    private final WebClient webClient;
+
+    private final LoadTestReport report;
+
+    private final List<String> seededTaskIds;
+
+    private final String password;
+
+    private final Queue<String> createdTaskIds = new ConcurrentLinkedQueue<>();
+
+    Workload(WebClient webClient, LoadTestReport report, List<String> seededTaskIds, String password) {
+        this.webClient = webClient;
+        this.report = report;
+        this.seededTaskIds = seededTaskIds;
+        this.password = password;
+    }
+
+    /**
+     * Runs a virtual user.
+     *
+     * @param login the login of the user.
+     * @param duration how long the user sends requests.
+     * @return a {@link Mono} completing at the end of the duration.
+     */
+    Mono<Void> runUser(String login, Duration duration) {
+        return authenticate(login)
+            .flatMap(token -> Mono.defer(() -> sendRequest(login, token)).repeat().takeUntilOther(Mono.delay(duration)).then());
+    }
+
+    /**
+     * Logs a user in, retrying while the login is rejected.
+     *
+     * @param login the login of the user.
+     * @return the token of the user.
+     */
+    Mono<String> authenticate(String login) {
+        return Mono
+            .defer(() -> login(login))
+            // Logins beyond the capacity of the password hashing are rejected with 429 (Too Many Requests)
+            .repeatWhenEmpty(LOGIN_ATTEMPTS, attempts -> attempts.delayElements(LOGIN_RETRY_DELAY));
+    }
+
+    private Mono<?> sendRequest(String login, String token) {
+        int draw = ThreadLocalRandom.current().nextInt(TOTAL_WEIGHT);
+        Endpoint endpoint = Endpoint.LOGIN;
+        for (Endpoint candidate : Endpoint.values()) {
+            draw -= candidate.weight;
+            if (draw < 0) {
+                endpoint = candidate;
+                break;
+            }
+        }
+        switch (endpoint) {
+            case LOGIN:
+                return login(login);
+            case LIST:
+                return timed(
+                    Endpoint.LIST,
+                    webClient.get().uri("/api/tasks?size=20").headers(bearer(token)).accept(MediaType.APPLICATION_JSON)
+                );
+            case GET:
+                return timed(
+                    Endpoint.GET,
+                    webClient.get().uri("/api/tasks/{id}", randomSeededTaskId()).headers(bearer(token)).accept(MediaType.APPLICATION_JSON)
+                );
+            case PATCH:
+                Map<String, Object> patch = Map.of("id", randomSeededTaskId(), "completed", ThreadLocalRandom.current().nextBoolean());
+                return timed(
+                    Endpoint.PATCH,
+                    webClient
+                        .patch()
+                        .uri("/api/tasks/{id}", patch.get("id"))
+                        .headers(bearer(token))
+                        .contentType(MERGE_PATCH_JSON)
+                        .bodyValue(patch)
+                );
+            case DELETE:
+                String id = createdTaskIds.poll();
+                if (id != null) {
+                    return timed(Endpoint.DELETE, webClient.delete().uri("/api/tasks/{id}", id).headers(bearer(token)));
+                }
+                return create(token);
+            default:
+                return create(token);
+        }
+    }
+
+    private Mono<String> login(String login) {
+        return timed(
+            Endpoint.LOGIN,
+            webClient.post().uri("/api/authenticate").bodyValue(Map.of("username", login, "password", password)),
+            response -> response.toEntity(TOKEN_TYPE)
+        )
+            .map(body -> body.get("id_token"));
+    }
+
+    private Mono<String> create(String token) {
+        return timed(
+            Endpoint.CREATE,
+            webClient.post().uri("/api/tasks").headers(bearer(token)).bodyValue(createTasks()),
+            response -> response.toEntity(Tasks.class)
+        )
+            .map(Tasks::getId)
+            .doOnNext(createdTaskIds::add);
+    }
+
+    /**
+     * Creates tasks one request at a time.
+     *
+     * @param token the token of the user creating the tasks.
+     * @param count the number of tasks to create.
+     * @param concurrency the number of requests in flight.
+     * @return the number of tasks created.
+     */
+    Mono<Long> createOneByOne(String token, int count, int concurrency) {
+        return Flux
+            .range(0, count)
+            .flatMap(
+                i ->
+                    webClient
+                        .post()
+                        .uri("/api/tasks")
+                        .headers(bearer(token))
+                        .bodyValue(createTasks())
+                        .retrieve()
+                        .toBodilessEntity(),
+                concurrency
+            )
+            .count();
+    }
+
+    /**
+     * Creates tasks in a single bulk request.
+     *
+     * @param token the token of the user creating the tasks.
+     * @param count the number of tasks to create.
+     * @return the number of tasks created.
+     */
+    Mono<Long> createInBulk(String token, int count) {
+        Flux<TasksBulkOperation> operations = Flux
+            .range(0, count)
+            .map(i -> new TasksBulkOperation().action(TasksBulkOperation.Action.CREATE).tasks(createTasks()));
+        return webClient
+            .post()
+            .uri("/api/tasks/_bulk")
+            .headers(bearer(token))
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .body(operations, TasksBulkOperation.class)
+            .retrieve()
+            .bodyToFlux(TasksBulkResult.class)
+            .filter(result -> result.getStatus() == TasksBulkResult.Status.CREATED)
+            .count();
+    }
+
+    private Mono<Void> timed(Endpoint endpoint, WebClient.RequestHeadersSpec<?> request) {
+        return timed(endpoint, request, ClientResponse::toBodilessEntity);
+    }
+
+    /**
+     * Sends a request, and records its latency until its body is read.
+     *
+     * @return the body of a successful response, or an empty {@link Mono}.
+     */
+    private <T> Mono<T> timed(
+        Endpoint endpoint,
+        WebClient.RequestHeadersSpec<?> request,
+        Function<ClientResponse, Mono<ResponseEntity<T>>> bodyReader
+    ) {
+        return Mono.defer(
+            () -> {
+                long start = System.nanoTime();
+                return request
+                    .exchangeToMono(bodyReader)
+                    .doOnNext(response -> report.record(endpoint, String.valueOf(response.getStatusCodeValue()), System.nanoTime() - start))
+                    .doOnError(e -> report.record(endpoint, e.getClass().getSimpleName(), System.nanoTime() - start))
+                    .onErrorResume(e -> Mono.empty())
+                    .filter(response -> response.getStatusCode().is2xxSuccessful() && response.getBody() != null)
+                    .map(ResponseEntity::getBody);
+            }
+        );
+    }
+
+    private String randomSeededTaskId() {
+        return seededTaskIds.get(ThreadLocalRandom.current().nextInt(seededTaskIds.size()));
+    }
+
+    private static Consumer<HttpHeaders> bearer(String token) {
+        return headers -> headers.setBearerAuth(token);
+    }
+
+    static Tasks createTasks() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new Tasks()
+            .name("Load test task " + random.nextInt(1_000_000))
+            .dueDate(LocalDate.now().plusDays(random.nextInt(365)))
+            .completed(random.nextBoolean());
+    }
+}
@@ -0,0 +1,79 @@
+package yuchi.springframework.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import yuchi.springframework.IntegrationTest;
+import yuchi.springframework.domain.Tasks;
+
+/**
+ * Integration tests for {@link TasksRepository}.
+ */
+@IntegrationTest
+class TasksRepositoryIT {
+
+    @Autowired
+    private TasksRepository tasksRepository;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @BeforeEach
+    public void init() {
+        tasksRepository.deleteAll().block();
+        tasksRepository
+            .saveAll(
+                Flux
+                    .range(0, 50)
+                    .map(i -> new Tasks().name("task-" + i).dueDate(LocalDate.ofEpochDay(i)).completed(i % 2 == 0))
+            )
+            .blockLast();
+    }
+
+    @Test
+    void assertThatFilteredQueriesAreIndexed() {
+        assertThatQueryIsIndexed(new TasksFilter().completed(false));
+        assertThatQueryIsIndexed(new TasksFilter().completed(false).dueDateFrom(LocalDate.ofEpochDay(3)).dueDateTo(LocalDate.ofEpochDay(10)));
+        assertThatQueryIsIndexed(new TasksFilter().dueDateFrom(LocalDate.ofEpochDay(3)));
+        assertThatQueryIsIndexed(new TasksFilter().namePrefix("task-1"));
+    }
+
+    @Test
+    void assertThatFilterIsApplied() {
+        TasksFilter filter = new TasksFilter().completed(false).dueDateFrom(LocalDate.ofEpochDay(3)).dueDateTo(LocalDate.ofEpochDay(10));
+
+        assertThat(tasksRepository.findAllByFilter(filter, null, 100).collectList().block())
+            .hasSize(4)
+            .allMatch(tasks -> !tasks.getCompleted());
+        assertThat(tasksRepository.findAllByFilter(new TasksFilter().namePrefix("task-4"), null, 100).collectList().block())
+            .hasSize(11)
+            .allMatch(tasks -> tasks.getName().startsWith("task-4"));
+    }
+
+    private void assertThatQueryIsIndexed(TasksFilter filter) {
+        Query query = TasksRepositoryCustomImpl.createQuery(filter, null);
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Tasks.class);
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        Document find = new Document("find", mongoTemplate.getCollectionName(Tasks.class))
+            .append("filter", queryMapper.getMappedObject(query.getQueryObject(), entity))
+            .append("sort", queryMapper.getMappedSort(query.getSortObject(), entity));
+
+        Document explain = mongoTemplate.executeCommand(new Document("explain", find).append("verbosity", "executionStats")).block();
+
+        assertThat(explain).isNotNull();
+        // The index gives the order of the pages, and the filter is applied on its keys before the tasks are fetched
+        assertThat(explain.toJson()).contains("IXSCAN").doesNotContain("COLLSCAN").doesNotContain("\"SORT\"");
+        Document executionStats = explain.get("executionStats", Document.class);
+        assertThat(executionStats.get("totalDocsExamined", Number.class).longValue())
+            .isEqualTo(executionStats.get("nReturned", Number.class).longValue());
+    }
+}
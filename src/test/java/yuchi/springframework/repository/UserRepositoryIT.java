@@ -0,0 +1,64 @@
+package yuchi.springframework.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import yuchi.springframework.IntegrationTest;
+import yuchi.springframework.domain.User;
+
+/**
+ * Integration tests for {@link UserRepository}.
+ */
+@IntegrationTest
+class UserRepositoryIT {
+
+    private static final String USER_LOGIN = "test-user-email";
+    private static final String USER_EMAIL = "Test-User-Email@Example.com";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @BeforeEach
+    public void init() {
+        userRepository.deleteAll().block();
+
+        User user = new User();
+        user.setLogin(USER_LOGIN);
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user.setEmail(USER_EMAIL);
+        userRepository.save(user).block();
+    }
+
+    @Test
+    void assertThatEmailIsStoredInLowercase() {
+        assertThat(userRepository.findOneByLogin(USER_LOGIN).block().getEmail()).isEqualTo("test-user-email@example.com");
+    }
+
+    @Test
+    void assertThatUserCanBeFoundByEmailWhateverItsCase() {
+        assertThat(userRepository.findOneByEmailNormalized(USER_EMAIL).block()).extracting(User::getLogin).isEqualTo(USER_LOGIN);
+        assertThat(userRepository.findOneByEmailNormalized(USER_EMAIL.toUpperCase()).block())
+            .extracting(User::getLogin)
+            .isEqualTo(USER_LOGIN);
+    }
+
+    @Test
+    void assertThatEmailLookupIsIndexed() {
+        Document find = new Document("find", mongoTemplate.getCollectionName(User.class))
+            .append("filter", new Document("email", "test-user-email@example.com"));
+
+        Document explain = mongoTemplate.executeCommand(new Document("explain", find).append("verbosity", "queryPlanner")).block();
+
+        assertThat(explain).isNotNull();
+        assertThat(explain.toJson()).contains("IXSCAN").doesNotContain("COLLSCAN");
+    }
+}
@@ -10,9 +10,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import yuchi.springframework.IntegrationTest;
 import yuchi.springframework.domain.User;
 import yuchi.springframework.repository.UserRepository;
+import yuchi.springframework.service.UserService;
 
 /**
  * Integrations tests for {@link DomainUserDetailsService}.
@@ -33,6 +35,9 @@ class DomainUserDetailsServiceIT {
     @Autowired
     private ReactiveUserDetailsService domainUserDetailsService;
 
+    @Autowired
+    private UserService userService;
+
     @BeforeEach
     public void init() {
         userRepository.deleteAll().block();
@@ -108,4 +113,14 @@ class DomainUserDetailsServiceIT {
         assertThatExceptionOfType(UserNotActivatedException.class)
             .isThrownBy(() -> domainUserDetailsService.findByUsername(USER_THREE_LOGIN).block());
     }
+
+    @Test
+    void assertThatCachedUserIsEvictedWhenDeleted() {
+        assertThat(domainUserDetailsService.findByUsername(USER_ONE_EMAIL).block()).isNotNull();
+
+        userService.deleteUser(USER_ONE_LOGIN).block();
+
+        assertThatExceptionOfType(UsernameNotFoundException.class)
+            .isThrownBy(() -> domainUserDetailsService.findByUsername(USER_ONE_EMAIL).block());
+    }
 }
@@ -0,0 +1,73 @@
+package yuchi.springframework.security.jwt;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import tech.jhipster.config.JHipsterProperties;
+import yuchi.springframework.security.AuthoritiesConstants;
+
+/**
+ * Benchmark of {@link JWTFilter} on an authenticated and on an anonymous request, with a chain doing nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTFilterBenchmark {
+
+    private static final WebFilterChain CHAIN = exchange -> Mono.empty();
+
+    private JWTFilter jwtFilter;
+
+    private MockServerWebExchange authenticatedExchange;
+
+    private MockServerWebExchange anonymousExchange;
+
+    @Setup
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties
+            .getSecurity()
+            .getAuthentication()
+            .getJwt()
+            .setBase64Secret("fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8");
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties);
+        jwtFilter = new JWTFilter(tokenProvider);
+        String token = tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken(
+                "user",
+                "user",
+                Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+            ),
+            false
+        );
+        authenticatedExchange =
+            MockServerWebExchange.from(MockServerHttpRequest.get("/api/tasks").header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + token));
+        anonymousExchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/tasks"));
+    }
+
+    @Benchmark
+    public void authenticatedRequest() {
+        jwtFilter.filter(authenticatedExchange, CHAIN).block();
+    }
+
+    @Benchmark
+    public void anonymousRequest() {
+        jwtFilter.filter(anonymousExchange, CHAIN).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JWTFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -83,6 +83,40 @@ class TokenProviderTest {
         assertThat(isTokenValid).isFalse();
     }
 
+    @Test
+    void testResolveAuthenticationVerifiesTokenOnce() {
+        Authentication authentication = createAuthentication();
+        String token = tokenProvider.createToken(authentication, false);
+
+        Authentication resolved = tokenProvider.resolveAuthentication(token);
+
+        assertThat(resolved).isNotNull();
+        assertThat(resolved.getName()).isEqualTo("anonymous");
+        assertThat(resolved.getCredentials()).isEqualTo(token);
+        assertThat(resolved.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly(AuthoritiesConstants.ANONYMOUS);
+        // A new authentication per request, as the security context of a request may change it
+        Authentication cached = tokenProvider.resolveAuthentication(token);
+        assertThat(cached).isNotSameAs(resolved);
+        assertThat(cached.getName()).isEqualTo("anonymous");
+        assertThat(cached.getCredentials()).isEqualTo(token);
+        assertThat(cached.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly(AuthoritiesConstants.ANONYMOUS);
+    }
+
+    @Test
+    void testResolveAuthenticationReturnsNullWhenJWTisInvalid() {
+        assertThat(tokenProvider.resolveAuthentication(createTokenWithDifferentSignature())).isNull();
+        assertThat(tokenProvider.resolveAuthentication("")).isNull();
+    }
+
+    @Test
+    void testResolveAuthenticationReturnsNullWhenJWTisExpired() {
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -ONE_MINUTE);
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.resolveAuthentication(token)).isNull();
+        assertThat(tokenProvider.resolveAuthentication(token)).isNull();
+    }
+
     @Test
     void testKeyIsSetFromSecretWhenSecretIsNotEmpty() {
         final String secret = "NwskoUmKHZtzGRKJKVjsJF7BtQMMxNWi";
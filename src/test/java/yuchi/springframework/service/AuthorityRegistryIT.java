@@ -0,0 +1,51 @@
+package yuchi.springframework.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Flux;
+import yuchi.springframework.IntegrationTest;
+import yuchi.springframework.domain.Authority;
+import yuchi.springframework.repository.AuthorityRepository;
+import yuchi.springframework.security.AuthoritiesConstants;
+
+/**
+ * Integration tests for {@link AuthorityRegistry}.
+ */
+@IntegrationTest
+class AuthorityRegistryIT {
+
+    @Autowired
+    private AuthorityRegistry authorityRegistry;
+
+    @Test
+    void assertThatAllAuthoritiesAreLoaded() {
+        assertThat(authorityRegistry.findAll().map(Authority::getName).collectList().block())
+            .containsExactlyInAnyOrder(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+    }
+
+    @Test
+    void assertThatUnknownAuthoritiesAreSkipped() {
+        assertThat(authorityRegistry.findAllByName(List.of(AuthoritiesConstants.USER, "ROLE_UNKNOWN")).collectList().block())
+            .extracting(Authority::getName)
+            .containsExactly(AuthoritiesConstants.USER);
+        assertThat(authorityRegistry.findByName("ROLE_UNKNOWN").blockOptional()).isNotPresent();
+    }
+
+    @Test
+    void assertThatAuthoritiesAreLoadedOnceSeeded() {
+        Authority user = new Authority();
+        user.setName(AuthoritiesConstants.USER);
+        AuthorityRepository authorityRepository = mock(AuthorityRepository.class);
+        when(authorityRepository.findAll()).thenReturn(Flux.empty(), Flux.just(user), Flux.error(new IllegalStateException()));
+        AuthorityRegistry registry = new AuthorityRegistry(authorityRepository);
+
+        assertThat(registry.findByName(AuthoritiesConstants.USER).blockOptional()).isNotPresent();
+        assertThat(registry.findByName(AuthoritiesConstants.USER).blockOptional()).contains(user);
+        assertThat(registry.findByName(AuthoritiesConstants.USER).blockOptional()).contains(user);
+    }
+}
@@ -0,0 +1,141 @@
+package yuchi.springframework.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import javax.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import tech.jhipster.config.JHipsterProperties;
+import yuchi.springframework.IntegrationTest;
+import yuchi.springframework.config.ApplicationProperties;
+import yuchi.springframework.domain.MailMessage;
+import yuchi.springframework.repository.MailMessageRepository;
+
+/**
+ * Integration tests for {@link MailOutboxService}, sending to a GreenMail SMTP server.
+ */
+@IntegrationTest
+class MailOutboxServiceIT {
+
+    @Autowired
+    private MailMessageRepository mailMessageRepository;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private JHipsterProperties jHipsterProperties;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private GreenMail greenMail;
+
+    private MailOutboxService mailOutboxService;
+
+    @BeforeEach
+    public void setup() {
+        mailMessageRepository.deleteAll().block();
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.start();
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost(ServerSetupTest.SMTP.getBindAddress());
+        javaMailSender.setPort(ServerSetupTest.SMTP.getPort());
+        mailOutboxService =
+            new MailOutboxService(
+                mailMessageRepository,
+                mongoTemplate,
+                javaMailSender,
+                jHipsterProperties,
+                applicationProperties,
+                meterRegistry
+            );
+        mailOutboxService.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        mailOutboxService.stop();
+        greenMail.stop();
+    }
+
+    @Test
+    void testSendPendingMessages() throws Exception {
+        mailMessageRepository.saveAll(List.of(createMessage("a@example.com"), createMessage("b@example.com"))).blockLast();
+
+        mailOutboxService.sendPendingMessages().block();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(2);
+        assertThat(received[0].getSubject()).isEqualTo("testSubject");
+        assertThat(received[0].getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
+        assertThat(mailMessageRepository.count().block()).isZero();
+    }
+
+    @Test
+    void testMessageIsRescheduledWhenServerIsDown() {
+        greenMail.stop();
+        MailMessage message = mailMessageRepository.save(createMessage("a@example.com")).block();
+
+        mailOutboxService.sendPendingMessages().block();
+
+        MailMessage rescheduled = mailMessageRepository.findById(message.getId()).block();
+        assertThat(rescheduled.getAttempts()).isEqualTo(1);
+        assertThat(rescheduled.getNextAttemptDate()).isAfter(Instant.now());
+        assertThat(rescheduled.getClaimToken()).isNull();
+        assertThat(rescheduled.getLockedUntil()).isNull();
+        assertThat(rescheduled.getLastError()).isNotNull();
+    }
+
+    @Test
+    void testMessageIsAbandonedAfterMaxAttempts() {
+        greenMail.stop();
+        MailMessage message = createMessage("a@example.com");
+        message.setAttempts(applicationProperties.getMailOutbox().getMaxAttempts() - 1);
+        message = mailMessageRepository.save(message).block();
+
+        mailOutboxService.sendPendingMessages().block();
+
+        MailMessage abandoned = mailMessageRepository.findById(message.getId()).block();
+        assertThat(abandoned.getAttempts()).isEqualTo(applicationProperties.getMailOutbox().getMaxAttempts());
+        assertThat(abandoned.getNextAttemptDate()).isNull();
+    }
+
+    @Test
+    void testMessageOfCrashedWorkerIsSentAfterLockExpires() {
+        MailMessage locked = createMessage("a@example.com");
+        locked.setClaimToken("crashed");
+        locked.setLockedUntil(Instant.now().plus(1, ChronoUnit.HOURS));
+        MailMessage expired = createMessage("b@example.com");
+        expired.setClaimToken("crashed");
+        expired.setLockedUntil(Instant.now().minus(1, ChronoUnit.MINUTES));
+        mailMessageRepository.saveAll(List.of(locked, expired)).blockLast();
+
+        mailOutboxService.sendPendingMessages().block();
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+        assertThat(mailMessageRepository.findAll().single().block().getTo()).isEqualTo("a@example.com");
+    }
+
+    private static MailMessage createMessage(String to) {
+        MailMessage message = new MailMessage();
+        message.setTo(to);
+        message.setSubject("testSubject");
+        message.setContent("testContent");
+        message.setNextAttemptDate(Instant.now().minus(1, ChronoUnit.SECONDS));
+        return message;
+    }
+}
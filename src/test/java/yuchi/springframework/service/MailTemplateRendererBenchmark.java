@@ -0,0 +1,109 @@
+package yuchi.springframework.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import tech.jhipster.config.JHipsterProperties;
+import tech.jhipster.security.RandomUtil;
+import yuchi.springframework.config.Constants;
+import yuchi.springframework.domain.User;
+
+/**
+ * Benchmark of the rendering of 100k activation emails, as sent during a bulk activation campaign.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class MailTemplateRendererBenchmark {
+
+    private static final int EMAILS = 100_000;
+
+    private static final String TEMPLATE = "mail/activationEmail";
+
+    private static final String TITLE_KEY = "email.activation.title";
+
+    private static final Locale LOCALE = Locale.forLanguageTag(Constants.DEFAULT_LANGUAGE);
+
+    private SpringTemplateEngine templateEngine;
+
+    private ResourceBundleMessageSource messageSource;
+
+    private JHipsterProperties jHipsterProperties;
+
+    private MailTemplateRenderer mailTemplateRenderer;
+
+    private List<User> users;
+
+    @Setup
+    public void setup() {
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCharacterEncoding("UTF-8");
+        messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding("UTF-8");
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getMail().setBaseUrl("http://127.0.0.1:8080");
+        mailTemplateRenderer = new MailTemplateRenderer(templateEngine, messageSource, jHipsterProperties, new ThymeleafProperties());
+        mailTemplateRenderer.precompile(TEMPLATE, LOCALE);
+
+        users = new ArrayList<>(EMAILS);
+        for (int i = 0; i < EMAILS; i++) {
+            User user = new User();
+            user.setLogin("user" + i);
+            user.setEmail("user" + i + "@localhost");
+            user.setLangKey(Constants.DEFAULT_LANGUAGE);
+            user.setActivationKey(RandomUtil.generateActivationKey());
+            users.add(user);
+        }
+    }
+
+    /**
+     * The former path of {@link MailService}: the template engine processes each email.
+     */
+    @Benchmark
+    public void processTemplate(Blackhole blackhole) {
+        for (User user : users) {
+            Context context = new Context(LOCALE);
+            context.setVariable("user", user);
+            context.setVariable("baseUrl", jHipsterProperties.getMail().getBaseUrl());
+            blackhole.consume(templateEngine.process(TEMPLATE, context));
+            blackhole.consume(messageSource.getMessage(TITLE_KEY, null, LOCALE));
+        }
+    }
+
+    /**
+     * The path of {@link MailService}: the parts of the template rendered for the locale are filled in with each user.
+     */
+    @Benchmark
+    public void renderPrecompiledTemplate(Blackhole blackhole) {
+        for (User user : users) {
+            blackhole.consume(mailTemplateRenderer.render(user, TEMPLATE, LOCALE));
+            blackhole.consume(mailTemplateRenderer.getSubject(TITLE_KEY, LOCALE));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MailTemplateRendererBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,99 @@
+package yuchi.springframework.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import tech.jhipster.config.JHipsterProperties;
+import yuchi.springframework.IntegrationTest;
+import yuchi.springframework.config.Constants;
+import yuchi.springframework.domain.User;
+
+/**
+ * Integration tests for {@link MailTemplateRenderer}.
+ */
+@IntegrationTest
+class MailTemplateRendererIT {
+
+    private static final Locale LOCALE = Locale.forLanguageTag(Constants.DEFAULT_LANGUAGE);
+
+    @Autowired
+    private MailTemplateRenderer mailTemplateRenderer;
+
+    @Autowired
+    private SpringTemplateEngine templateEngine;
+
+    @Autowired
+    private JHipsterProperties jHipsterProperties;
+
+    @Test
+    void testRenderIsEscapedLikeTemplateEngine() {
+        User user = new User();
+        user.setLogin("john&o'doe");
+        user.setFirstName("<John>");
+        user.setActivationKey("activationKey1");
+        user.setResetKey("resetKey1");
+        user.setLangKey(Constants.DEFAULT_LANGUAGE);
+
+        for (String templateName : new String[] { "mail/activationEmail", "mail/creationEmail", "mail/passwordResetEmail" }) {
+            mailTemplateRenderer.precompile(templateName, LOCALE);
+            assertThat(mailTemplateRenderer.render(user, templateName, LOCALE)).isEqualTo(process(user, templateName));
+        }
+    }
+
+    @Test
+    void testRenderDependsOnNullProperties() {
+        mailTemplateRenderer.precompile("mail/testConditionalEmail", LOCALE);
+        User user = new User();
+        user.setLogin("john");
+        assertThat(mailTemplateRenderer.render(user, "mail/testConditionalEmail", LOCALE))
+            .isEqualTo(process(user, "mail/testConditionalEmail"))
+            .doesNotContain("Dear");
+
+        user.setFirstName("John");
+        assertThat(mailTemplateRenderer.render(user, "mail/testConditionalEmail", LOCALE))
+            .isEqualTo(process(user, "mail/testConditionalEmail"))
+            .contains("Dear John");
+    }
+
+    @Test
+    void testRenderRejectsTemplateComputingOnProperties() {
+        mailTemplateRenderer.precompile("mail/testLengthEmail", LOCALE);
+        User user = new User();
+        user.setLogin("jo");
+
+        assertThat(mailTemplateRenderer.render(user, "mail/testLengthEmail", LOCALE))
+            .isEqualTo(process(user, "mail/testLengthEmail"))
+            .contains("<p>2</p>");
+    }
+
+    @Test
+    void testRenderProcessesTemplatesNotOptedIn() {
+        User user = new User();
+        user.setLogin("jean");
+        user.setLangKey("fr");
+        assertThat(mailTemplateRenderer.render(user, "mail/testLangKeyEmail", LOCALE))
+            .isEqualTo(process(user, "mail/testLangKeyEmail"))
+            .contains("Bonjour");
+
+        user.setLangKey("en");
+        assertThat(mailTemplateRenderer.render(user, "mail/testLangKeyEmail", LOCALE))
+            .isEqualTo(process(user, "mail/testLangKeyEmail"))
+            .doesNotContain("Bonjour");
+    }
+
+    @Test
+    void testGetSubject() {
+        assertThat(mailTemplateRenderer.getSubject("email.test.title", LOCALE)).isEqualTo("test title");
+    }
+
+    private String process(User user, String templateName) {
+        Context context = new Context(LOCALE);
+        context.setVariable("user", user);
+        context.setVariable("baseUrl", jHipsterProperties.getMail().getBaseUrl());
+        return templateEngine.process(templateName, context);
+    }
+}
@@ -0,0 +1,58 @@
+package yuchi.springframework.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import yuchi.springframework.IntegrationTest;
+import yuchi.springframework.domain.Tasks;
+import yuchi.springframework.repository.TasksRepository;
+import yuchi.springframework.service.dto.TasksBulkOperation;
+import yuchi.springframework.service.dto.TasksBulkResult;
+
+/**
+ * Integration tests for {@link TasksBulkService}.
+ */
+@IntegrationTest
+class TasksBulkServiceIT {
+
+    @Autowired
+    private TasksBulkService tasksBulkService;
+
+    @Autowired
+    private TasksRepository tasksRepository;
+
+    private Tasks tasks;
+
+    @BeforeEach
+    public void init() {
+        tasksRepository.deleteAll().block();
+        tasks = tasksRepository.save(new Tasks().name("task").dueDate(LocalDate.ofEpochDay(0)).completed(false)).block();
+    }
+
+    @Test
+    void assertThatOnlyTheFirstOperationOnATasksIsApplied() {
+        // Both updates would read the same version, and write the same next version
+        List<TasksBulkResult> results = tasksBulkService
+            .bulkWrite(
+                List.of(
+                    new TasksBulkOperation().action(TasksBulkOperation.Action.UPDATE).tasks(new Tasks().id(tasks.getId()).name("first")),
+                    new TasksBulkOperation().action(TasksBulkOperation.Action.UPDATE).tasks(new Tasks().id(tasks.getId()).name("second")),
+                    new TasksBulkOperation().action(TasksBulkOperation.Action.DELETE).id(tasks.getId())
+                )
+            )
+            .collectList()
+            .block();
+
+        assertThat(results)
+            .extracting(TasksBulkResult::getStatus)
+            .containsExactly(TasksBulkResult.Status.UPDATED, TasksBulkResult.Status.FAILED, TasksBulkResult.Status.FAILED);
+        assertThat(results).extracting(TasksBulkResult::getError).containsExactly(null, "idduplicate", "idduplicate");
+        Tasks testTasks = tasksRepository.findById(tasks.getId()).block();
+        assertThat(testTasks.getName()).isEqualTo("first");
+        assertThat(testTasks.getVersion()).isEqualTo(tasks.getVersion() + 1);
+    }
+}
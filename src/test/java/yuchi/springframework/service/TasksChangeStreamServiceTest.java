@@ -0,0 +1,156 @@
+package yuchi.springframework.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bson.BsonValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.scheduler.VirtualTimeScheduler;
+import yuchi.springframework.service.dto.TasksChangeDTO;
+
+/**
+ * Unit tests for {@link TasksChangeStreamService}, with the change streams of Mongo replaced by sinks.
+ */
+class TasksChangeStreamServiceTest {
+
+    private static final String RESUME_TOKEN = Base64
+        .getUrlEncoder()
+        .withoutPadding()
+        .encodeToString("{\"_data\": \"00\"}".getBytes(StandardCharsets.UTF_8));
+
+    private Sinks.Many<TasksChangeDTO> sharedChangeStream;
+
+    private Sinks.Many<TasksChangeDTO> dedicatedChangeStream;
+
+    private final AtomicInteger sharedChangeStreams = new AtomicInteger();
+
+    private final AtomicInteger dedicatedChangeStreams = new AtomicInteger();
+
+    private final AtomicBoolean dedicatedChangeStreamClosed = new AtomicBoolean();
+
+    private TasksChangeStreamService tasksChangeStreamService;
+
+    @AfterEach
+    public void resetScheduler() {
+        VirtualTimeScheduler.reset();
+    }
+
+    @BeforeEach
+    public void setup() {
+        sharedChangeStream = Sinks.many().multicast().directBestEffort();
+        dedicatedChangeStream = Sinks.many().multicast().directBestEffort();
+        tasksChangeStreamService =
+            new TasksChangeStreamService(mock(ReactiveMongoTemplate.class)) {
+                @Override
+                Flux<TasksChangeDTO> changeStream(BsonValue resumeAfter) {
+                    if (resumeAfter == null) {
+                        sharedChangeStreams.incrementAndGet();
+                        return sharedChangeStream.asFlux();
+                    }
+                    dedicatedChangeStreams.incrementAndGet();
+                    return dedicatedChangeStream.asFlux().doOnCancel(() -> dedicatedChangeStreamClosed.set(true));
+                }
+            };
+    }
+
+    @Test
+    void testLiveSubscribersShareOneChangeStream() {
+        List<String> first = subscribe(null);
+        List<String> second = subscribe(null);
+        List<String> third = subscribe(null);
+
+        sharedChangeStream.tryEmitNext(change("a"));
+
+        assertThat(sharedChangeStreams).hasValue(1);
+        assertThat(dedicatedChangeStreams).hasValue(0);
+        assertThat(first).containsExactly("a");
+        assertThat(second).containsExactly("a");
+        assertThat(third).containsExactly("a");
+    }
+
+    @Test
+    void testResumingSubscriberSwitchesToSharedChangeStreamWhenLiveChangeWasReplayed() {
+        List<String> live = subscribe(null);
+        List<String> resumed = subscribe(RESUME_TOKEN);
+
+        dedicatedChangeStream.tryEmitNext(change("a"));
+        dedicatedChangeStream.tryEmitNext(change("b"));
+        sharedChangeStream.tryEmitNext(change("b"));
+        dedicatedChangeStream.tryEmitNext(change("c"));
+        sharedChangeStream.tryEmitNext(change("c"));
+
+        assertThat(resumed).containsExactly("a", "b", "c");
+        assertThat(live).containsExactly("b", "c");
+        assertThat(dedicatedChangeStreamClosed).isTrue();
+        assertThat(sharedChangeStreams).hasValue(1);
+    }
+
+    @Test
+    void testResumingSubscriberSwitchesToSharedChangeStreamWhenReplayReachesLiveChanges() {
+        List<String> resumed = subscribe(RESUME_TOKEN);
+
+        sharedChangeStream.tryEmitNext(change("b"));
+        sharedChangeStream.tryEmitNext(change("c"));
+        dedicatedChangeStream.tryEmitNext(change("a"));
+        dedicatedChangeStream.tryEmitNext(change("b"));
+        sharedChangeStream.tryEmitNext(change("d"));
+
+        assertThat(resumed).containsExactly("a", "b", "c", "d");
+        assertThat(dedicatedChangeStreamClosed).isTrue();
+    }
+
+    @Test
+    void testResumingSubscriberSwitchesToSharedChangeStreamWhenNoLiveChangeFollows() {
+        VirtualTimeScheduler scheduler = VirtualTimeScheduler.getOrSet();
+        List<String> resumed = subscribe(RESUME_TOKEN);
+
+        dedicatedChangeStream.tryEmitNext(change("a"));
+        dedicatedChangeStream.tryEmitNext(change("b"));
+        scheduler.advanceTimeBy(TasksChangeStreamService.CATCH_UP_IDLE_TIMEOUT.minusSeconds(1));
+        assertThat(dedicatedChangeStreamClosed).isFalse();
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+        assertThat(dedicatedChangeStreamClosed).isTrue();
+
+        sharedChangeStream.tryEmitNext(change("c"));
+
+        assertThat(resumed).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void testResumingSubscriberWaitsForPendingLiveChangesWhenIdle() {
+        VirtualTimeScheduler scheduler = VirtualTimeScheduler.getOrSet();
+        List<String> resumed = subscribe(RESUME_TOKEN);
+
+        sharedChangeStream.tryEmitNext(change("b"));
+        scheduler.advanceTimeBy(TasksChangeStreamService.CATCH_UP_IDLE_TIMEOUT);
+        assertThat(dedicatedChangeStreamClosed).isFalse();
+
+        dedicatedChangeStream.tryEmitNext(change("a"));
+        dedicatedChangeStream.tryEmitNext(change("b"));
+
+        assertThat(resumed).containsExactly("a", "b");
+        assertThat(dedicatedChangeStreamClosed).isTrue();
+    }
+
+    private List<String> subscribe(String resumeToken) {
+        List<String> received = new ArrayList<>();
+        tasksChangeStreamService.getChanges(resumeToken).map(TasksChangeDTO::getResumeToken).subscribe(received::add);
+        return received;
+    }
+
+    private static TasksChangeDTO change(String resumeToken) {
+        return new TasksChangeDTO("insert", resumeToken, null, resumeToken);
+    }
+}
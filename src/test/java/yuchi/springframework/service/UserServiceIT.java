@@ -1,6 +1,7 @@
 package yuchi.springframework.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -42,6 +43,9 @@ class UserServiceIT {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserCleanupService userCleanupService;
+
     private User user;
 
     @BeforeEach
@@ -58,6 +62,81 @@ class UserServiceIT {
         user.setLangKey(DEFAULT_LANGKEY);
     }
 
+    @Test
+    void assertThatRegistrationReplacesNotActivatedUser() {
+        user.setActivated(false);
+        userRepository.save(user).block();
+
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin("janedoe");
+        userDTO.setEmail(DEFAULT_EMAIL.toUpperCase());
+        User registeredUser = userService.registerUser(userDTO, "password").block();
+
+        assertThat(registeredUser.getId()).isNotNull();
+        assertThat(userRepository.findOneByLogin(DEFAULT_LOGIN).blockOptional()).isNotPresent();
+        assertThat(userRepository.findOneByEmailNormalized(DEFAULT_EMAIL).block().getLogin()).isEqualTo("janedoe");
+    }
+
+    @Test
+    void assertThatRegistrationRejectsLoginOrEmailOfActivatedUser() {
+        userRepository.save(user).block();
+
+        AdminUserDTO sameLogin = new AdminUserDTO();
+        sameLogin.setLogin(DEFAULT_LOGIN);
+        sameLogin.setEmail("janedoe@localhost");
+        assertThatExceptionOfType(UsernameAlreadyUsedException.class)
+            .isThrownBy(() -> userService.registerUser(sameLogin, "password").block());
+
+        AdminUserDTO sameEmail = new AdminUserDTO();
+        sameEmail.setLogin("janedoe");
+        sameEmail.setEmail(DEFAULT_EMAIL);
+        assertThatExceptionOfType(EmailAlreadyUsedException.class)
+            .isThrownBy(() -> userService.registerUser(sameEmail, "password").block());
+
+        assertThat(userRepository.count().block()).isEqualTo(1);
+    }
+
+    @Test
+    void assertThatRegistrationKeepsNotActivatedUserWhenLoginIsActivated() {
+        userRepository.save(user).block();
+        User pendingUser = new User();
+        pendingUser.setLogin("janedoe");
+        pendingUser.setPassword(RandomStringUtils.random(60));
+        pendingUser.setEmail("janedoe@localhost");
+        pendingUser.setActivated(false);
+        userRepository.save(pendingUser).block();
+
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(DEFAULT_LOGIN);
+        userDTO.setEmail("janedoe@localhost");
+        assertThatExceptionOfType(UsernameAlreadyUsedException.class)
+            .isThrownBy(() -> userService.registerUser(userDTO, "password").block());
+
+        assertThat(userRepository.findOneByLogin("janedoe").blockOptional()).isPresent();
+        assertThat(userRepository.count().block()).isEqualTo(2);
+    }
+
+    @Test
+    void assertThatRegistrationReplacesNotActivatedUsersOfLoginAndEmail() {
+        user.setActivated(false);
+        userRepository.save(user).block();
+        User pendingUser = new User();
+        pendingUser.setLogin("janedoe");
+        pendingUser.setPassword(RandomStringUtils.random(60));
+        pendingUser.setEmail("janedoe@localhost");
+        pendingUser.setActivated(false);
+        userRepository.save(pendingUser).block();
+
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(DEFAULT_LOGIN);
+        userDTO.setEmail("janedoe@localhost");
+        User registeredUser = userService.registerUser(userDTO, "password").block();
+
+        assertThat(registeredUser.getId()).isNotNull();
+        assertThat(userRepository.findOneByLogin("janedoe").blockOptional()).isNotPresent();
+        assertThat(userRepository.count().block()).isEqualTo(1);
+    }
+
     @Test
     void assertThatUserMustExistToResetPassword() {
         userRepository.save(user).block();
@@ -141,7 +220,7 @@ class UserServiceIT {
             .collectList()
             .block();
         assertThat(users).isNotEmpty();
-        userService.removeNotActivatedUsers();
+        assertThat(userCleanupService.removeNotActivatedUsersReactively().block()).isEqualTo((long) users.size());
         users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo).collectList().block();
         assertThat(users).isEmpty();
     }
@@ -159,7 +238,7 @@ class UserServiceIT {
             .collectList()
             .block();
         assertThat(users).isEmpty();
-        userService.removeNotActivatedUsers();
+        assertThat(userCleanupService.removeNotActivatedUsersReactively().block()).isZero();
         Optional<User> maybeDbUser = userRepository.findById(dbUser.getId()).blockOptional();
         assertThat(maybeDbUser).contains(dbUser);
     }
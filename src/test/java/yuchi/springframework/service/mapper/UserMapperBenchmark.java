@@ -0,0 +1,77 @@
+package yuchi.springframework.service.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import yuchi.springframework.config.Constants;
+import yuchi.springframework.domain.Authority;
+import yuchi.springframework.domain.User;
+import yuchi.springframework.security.AuthoritiesConstants;
+import yuchi.springframework.service.dto.AdminUserDTO;
+import yuchi.springframework.service.dto.UserDTO;
+
+/**
+ * Benchmark of the conversions of {@link UserMapper}, on a page of users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    // The default page size of the user APIs
+    private static final int PAGE_SIZE = 20;
+
+    private UserMapper userMapper;
+
+    private List<User> users;
+
+    private List<AdminUserDTO> userDTOs;
+
+    @Setup
+    public void setup() {
+        userMapper = new UserMapper();
+        Authority userAuthority = new Authority();
+        userAuthority.setName(AuthoritiesConstants.USER);
+        users = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            User user = new User();
+            user.setId("user-" + i);
+            user.setLogin("user" + i);
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setEmail("user" + i + "@localhost");
+            user.setActivated(true);
+            user.setLangKey(Constants.DEFAULT_LANGUAGE);
+            user.setAuthorities(Set.of(userAuthority));
+            users.add(user);
+        }
+        userDTOs = userMapper.usersToAdminUserDTOs(users);
+    }
+
+    @Benchmark
+    public List<UserDTO> usersToUserDTOs() {
+        return userMapper.usersToUserDTOs(users);
+    }
+
+    @Benchmark
+    public List<AdminUserDTO> usersToAdminUserDTOs() {
+        return userMapper.usersToAdminUserDTOs(users);
+    }
+
+    @Benchmark
+    public List<User> userDTOsToUsers() {
+        return userMapper.userDTOsToUsers(userDTOs);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserMapperBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,103 @@
+package yuchi.springframework.web.filter;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import yuchi.springframework.config.ApplicationProperties;
+
+/**
+ * Benchmark of the routing decision of {@link SpaWebFilter}, over a mix of API, management, asset and client paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpaWebFilterBenchmark {
+
+    // Mostly API calls, as the client only loads its routes once
+    private static final String[] PATHS = {
+        "/api/tasks",
+        "/api/tasks/60a7c1f2e4b0a1b2c3d4e5f6",
+        "/api/account",
+        "/api/authenticate",
+        "/api/admin/users",
+        "/api/tasks/changes",
+        "/management/health",
+        "/management/prometheus",
+        "/app/main.bundle.js",
+        "/content/images/logo-jhipster.png",
+        "/i18n/en.json",
+        "/favicon.ico",
+        "/",
+        "/tasks",
+        "/tasks/60a7c1f2e4b0a1b2c3d4e5f6/edit",
+        "/admin/user-management",
+        "/v3/api-docs",
+    };
+
+    private static final WebFilterChain CHAIN = exchange -> Mono.empty();
+
+    private SpaWebFilter spaWebFilter;
+
+    private MockServerWebExchange[] exchanges;
+
+    @Setup
+    public void setup() {
+        spaWebFilter = new SpaWebFilter(new ApplicationProperties());
+        exchanges = new MockServerWebExchange[PATHS.length];
+        for (int i = 0; i < PATHS.length; i++) {
+            exchanges[i] = MockServerWebExchange.from(MockServerHttpRequest.get(PATHS[i]));
+        }
+    }
+
+    /**
+     * The former decision of {@link SpaWebFilter}, with a regular expression compiled on each request.
+     */
+    @Benchmark
+    @OperationsPerInvocation(17)
+    public void startsWithThenMatches(Blackhole blackhole) {
+        for (String path : PATHS) {
+            blackhole.consume(
+                !path.startsWith("/api") &&
+                !path.startsWith("/management") &&
+                !path.startsWith("/services") &&
+                !path.startsWith("/swagger") &&
+                !path.startsWith("/v2/api-docs") &&
+                !path.startsWith("/v3/api-docs") &&
+                path.matches("[^\\\\.]*")
+            );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(17)
+    public void prefixTrie(Blackhole blackhole) {
+        for (String path : PATHS) {
+            blackhole.consume(spaWebFilter.isForwarded(path));
+        }
+    }
+
+    /**
+     * The whole filter, including the forwarding of the client paths to index.html.
+     */
+    @Benchmark
+    @OperationsPerInvocation(17)
+    public void filter() {
+        for (MockServerWebExchange exchange : exchanges) {
+            spaWebFilter.filter(exchange, CHAIN).block();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SpaWebFilterBenchmark.class.getSimpleName()).addProfiler("gc").build()).run();
+    }
+}
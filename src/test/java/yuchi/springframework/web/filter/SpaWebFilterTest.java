@@ -0,0 +1,67 @@
+package yuchi.springframework.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import yuchi.springframework.config.ApplicationProperties;
+
+class SpaWebFilterTest {
+
+    private SpaWebFilter spaWebFilter;
+
+    @BeforeEach
+    public void setup() {
+        spaWebFilter = new SpaWebFilter(new ApplicationProperties());
+    }
+
+    @Test
+    void testClientPathsAreForwarded() {
+        assertThat(spaWebFilter.isForwarded("/")).isTrue();
+        assertThat(spaWebFilter.isForwarded("/tasks")).isTrue();
+        assertThat(spaWebFilter.isForwarded("/admin/user-management/john/view")).isTrue();
+        assertThat(spaWebFilter.isForwarded("/ap")).isTrue();
+    }
+
+    @Test
+    void testExcludedPathsAreNotForwarded() {
+        assertThat(spaWebFilter.isForwarded("/api")).isFalse();
+        assertThat(spaWebFilter.isForwarded("/api/tasks")).isFalse();
+        assertThat(spaWebFilter.isForwarded("/management/health")).isFalse();
+        assertThat(spaWebFilter.isForwarded("/services/tasks/api")).isFalse();
+        assertThat(spaWebFilter.isForwarded("/swagger-ui/")).isFalse();
+        assertThat(spaWebFilter.isForwarded("/v2/api-docs")).isFalse();
+        assertThat(spaWebFilter.isForwarded("/v3/api-docs/swagger-config")).isFalse();
+    }
+
+    @Test
+    void testFilesAreNotForwarded() {
+        assertThat(spaWebFilter.isForwarded("/index.html")).isFalse();
+        assertThat(spaWebFilter.isForwarded("/content/images/logo.png")).isFalse();
+        assertThat(spaWebFilter.isForwarded("/app\\main")).isFalse();
+    }
+
+    @Test
+    void testNonAsciiPathIsForwarded() {
+        assertThat(spaWebFilter.isForwarded("/équipes")).isTrue();
+    }
+
+    @Test
+    void testFilterForwardsToIndex() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/tasks/1/edit"));
+        String[] forwardedPath = new String[1];
+        spaWebFilter
+            .filter(
+                exchange,
+                filteredExchange -> {
+                    forwardedPath[0] = filteredExchange.getRequest().getPath().value();
+                    return Mono.empty();
+                }
+            )
+            .block();
+        assertThat(forwardedPath[0]).isEqualTo("/index.html");
+    }
+}
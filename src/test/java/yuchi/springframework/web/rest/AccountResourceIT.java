@@ -184,7 +184,7 @@ class AccountResourceIT {
             .expectStatus()
             .isBadRequest();
 
-        Optional<User> user = userRepository.findOneByEmailIgnoreCase("funky@example.com").blockOptional();
+        Optional<User> user = userRepository.findOneByEmailNormalized("funky@example.com").blockOptional();
         assertThat(user).isEmpty();
     }
 
@@ -314,7 +314,7 @@ class AccountResourceIT {
             .expectStatus()
             .isCreated();
 
-        Optional<User> testUser = userRepository.findOneByEmailIgnoreCase("alice2@example.com").blockOptional();
+        Optional<User> testUser = userRepository.findOneByEmailNormalized("alice2@example.com").blockOptional();
         assertThat(testUser).isPresent();
         testUser.get().setActivated(true);
         userRepository.save(testUser.get()).block();
@@ -550,7 +550,7 @@ class AccountResourceIT {
             .expectStatus()
             .isBadRequest();
 
-        assertThat(userRepository.findOneByEmailIgnoreCase("invalid email").blockOptional()).isNotPresent();
+        assertThat(userRepository.findOneByEmailNormalized("invalid email").blockOptional()).isNotPresent();
     }
 
     @Test
@@ -1,6 +1,7 @@
 package yuchi.springframework.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -60,6 +61,45 @@ class PublicUserResourceIT {
         assertThat(foundUser.getLogin()).isEqualTo(DEFAULT_LOGIN);
     }
 
+    @Test
+    void getAllPublicUsersWithoutCount() {
+        // Initialize the database
+        userRepository.save(user).block();
+        User other = UserResourceIT.createEntity();
+        other.setLogin(DEFAULT_LOGIN + "z");
+        other.setEmail("z" + user.getEmail());
+        userRepository.save(other).block();
+
+        // Get the first page of the users without counting them
+        String nextCursor = webTestClient
+            .get()
+            .uri("/api/users?count=false&size=1")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Total-Count")
+            .returnResult(UserDTO.class)
+            .getResponseHeaders()
+            .getFirst("X-Next-Cursor");
+        assertThat(nextCursor).isNotNull();
+
+        // Get the users after the cursor
+        webTestClient
+            .get()
+            .uri("/api/users?cursor={cursor}&size=100", nextCursor)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Next-Cursor")
+            .expectBody()
+            .jsonPath("$.[*].login")
+            .value(hasItem(DEFAULT_LOGIN + "z"));
+    }
+
     @Test
     void getAllAuthorities() {
         webTestClient
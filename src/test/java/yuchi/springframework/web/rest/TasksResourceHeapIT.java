@@ -0,0 +1,119 @@
+package yuchi.springframework.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import yuchi.springframework.IntegrationTest;
+import yuchi.springframework.domain.Tasks;
+import yuchi.springframework.repository.TasksRepository;
+
+/**
+ * Heap tests of the listing of the tasks by the {@link TasksResource} REST controller, on a million tasks.
+ * <p>
+ * Excluded from the default run, as they insert a million tasks and judge the heap from samples taken after a garbage
+ * collection: run them with {@code ./mvnw verify -Dtest.excluded-groups=none -Dit.test=TasksResourceHeapIT}.
+ */
+@Tag("heap")
+@IntegrationTest
+@AutoConfigureWebTestClient
+@WithMockUser
+class TasksResourceHeapIT {
+
+    private static final int TASKS = 1_000_000;
+
+    // A million tasks take several hundreds of megabytes once read
+    private static final long MAX_HEAP_GROWTH = 64L * 1024 * 1024;
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(5);
+
+    @Autowired
+    private TasksRepository tasksRepository;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    public void initTest() {
+        tasksRepository.deleteAll().block();
+        Flux
+            .range(0, TASKS)
+            .map(i -> TasksResourceIT.createEntity().name("task-" + i))
+            .buffer(10_000)
+            .concatMap(mongoTemplate::insertAll)
+            .then()
+            .block();
+        webTestClient = webTestClient.mutate().responseTimeout(TIMEOUT).build();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        tasksRepository.deleteAll().block();
+    }
+
+    @Test
+    void getAllTasksCollectsABoundedPage() {
+        List<Tasks> page = webTestClient
+            .get()
+            .uri("/api/tasks?size={size}", TASKS)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .exists(TasksResource.NEXT_CURSOR_HEADER)
+            .expectBodyList(Tasks.class)
+            .returnResult()
+            .getResponseBody();
+
+        assertThat(page).hasSize(CursorPaginationUtil.MAX_PAGE_SIZE);
+    }
+
+    @Test
+    void getAllTasksAsStreamKeepsHeapBounded() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong count = new AtomicLong();
+        AtomicLong maxHeapGrowth = new AtomicLong();
+
+        webTestClient
+            .get()
+            .uri("/api/tasks")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(Tasks.class)
+            .getResponseBody()
+            .doOnNext(
+                tasks -> {
+                    if (count.incrementAndGet() % 100_000 == 0) {
+                        System.gc();
+                        maxHeapGrowth.accumulateAndGet(memory.getHeapMemoryUsage().getUsed() - baseline, Math::max);
+                    }
+                }
+            )
+            .blockLast(TIMEOUT);
+
+        assertThat(count).hasValue(TASKS);
+        assertThat(maxHeapGrowth.get()).isLessThan(MAX_HEAP_GROWTH);
+    }
+}
@@ -4,21 +4,31 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import yuchi.springframework.IntegrationTest;
 import yuchi.springframework.domain.Tasks;
 import yuchi.springframework.repository.TasksRepository;
+import yuchi.springframework.service.dto.TasksBulkOperation;
+import yuchi.springframework.service.dto.TasksBulkResult;
 
 /**
  * Integration tests for the {@link TasksResource} REST controller.
@@ -98,6 +108,106 @@ class TasksResourceIT {
         assertThat(testTasks.getCompleted()).isEqualTo(DEFAULT_COMPLETED);
     }
 
+    @Test
+    void bulkTasks() throws Exception {
+        // Initialize the database
+        tasksRepository.save(tasks).block();
+        Tasks deletedTasks = tasksRepository.save(createEntity()).block();
+
+        Tasks updatedTasks = createUpdatedEntity().id(tasks.getId());
+        String body = Stream
+            .of(
+                new TasksBulkOperation().action(TasksBulkOperation.Action.CREATE).tasks(createEntity()),
+                new TasksBulkOperation().action(TasksBulkOperation.Action.UPDATE).tasks(updatedTasks),
+                new TasksBulkOperation().action(TasksBulkOperation.Action.DELETE).id(deletedTasks.getId()),
+                new TasksBulkOperation().action(TasksBulkOperation.Action.DELETE).id(UUID.randomUUID().toString()),
+                new TasksBulkOperation().action(TasksBulkOperation.Action.CREATE).tasks(createEntity().id("existing_id"))
+            )
+            .map(operation -> new String(convertObjectToJsonBytes(operation), StandardCharsets.UTF_8))
+            .collect(Collectors.joining("\n"));
+
+        List<TasksBulkResult> results = webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/_bulk")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(TasksBulkResult.class)
+            .getResponseBody()
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(results)
+            .extracting(TasksBulkResult::getStatus)
+            .containsExactly(
+                TasksBulkResult.Status.CREATED,
+                TasksBulkResult.Status.UPDATED,
+                TasksBulkResult.Status.DELETED,
+                TasksBulkResult.Status.NOT_FOUND,
+                TasksBulkResult.Status.FAILED
+            );
+        assertThat(results).extracting(TasksBulkResult::getIndex).containsExactly(0L, 1L, 2L, 3L, 4L);
+
+        // Validate the Tasks in the database
+        List<Tasks> tasksList = tasksRepository.findAll().collectList().block();
+        assertThat(tasksList).hasSize(2);
+        assertThat(tasksList).extracting(Tasks::getId).contains(results.get(0).getId()).doesNotContain(deletedTasks.getId());
+        Tasks testTasks = tasksRepository.findById(tasks.getId()).block();
+        assertThat(testTasks.getName()).isEqualTo(UPDATED_NAME);
+        assertThat(testTasks.getDueDate()).isEqualTo(UPDATED_DUE_DATE);
+        assertThat(testTasks.getCompleted()).isEqualTo(UPDATED_COMPLETED);
+    }
+
+    @Test
+    void bulkTasksWithDuplicateIds() throws Exception {
+        // Initialize the database
+        tasksRepository.save(tasks).block();
+
+        // Both updates would read the same version, so the second one is rejected rather than lost
+        String body = Stream
+            .of(
+                new TasksBulkOperation().action(TasksBulkOperation.Action.UPDATE).tasks(createUpdatedEntity().id(tasks.getId())),
+                new TasksBulkOperation().action(TasksBulkOperation.Action.UPDATE).tasks(createEntity().id(tasks.getId()))
+            )
+            .map(operation -> new String(convertObjectToJsonBytes(operation), StandardCharsets.UTF_8))
+            .collect(Collectors.joining("\n"));
+
+        List<TasksBulkResult> results = webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/_bulk")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(TasksBulkResult.class)
+            .getResponseBody()
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(results)
+            .extracting(TasksBulkResult::getStatus)
+            .containsExactly(TasksBulkResult.Status.UPDATED, TasksBulkResult.Status.FAILED);
+        assertThat(results.get(1).getError()).isEqualTo("idduplicate");
+
+        // Validate the Tasks in the database
+        Tasks testTasks = tasksRepository.findById(tasks.getId()).block();
+        assertThat(testTasks.getName()).isEqualTo(UPDATED_NAME);
+        assertThat(testTasks.getVersion()).isEqualTo(tasks.getVersion() + 1);
+    }
+
+    private static byte[] convertObjectToJsonBytes(Object object) {
+        try {
+            return TestUtil.convertObjectToJsonBytes(object);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Test
     void createTasksWithExistingId() throws Exception {
         // Create the Tasks with an existing ID
@@ -174,6 +284,152 @@ class TasksResourceIT {
             .value(hasItem(DEFAULT_COMPLETED.booleanValue()));
     }
 
+    @Test
+    void getAllTasksWithCursor() {
+        // Initialize the database
+        for (int i = 0; i < 3; i++) {
+            tasksRepository.save(createEntity()).block();
+        }
+
+        // Get the first page
+        String nextCursor = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=2")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .exists(HttpHeaders.LINK)
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(2)
+            .returnResult()
+            .getResponseHeaders()
+            .getFirst(TasksResource.NEXT_CURSOR_HEADER);
+        assertThat(nextCursor).isNotBlank();
+
+        // Get the last page
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=2&cursor=" + nextCursor)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist(TasksResource.NEXT_CURSOR_HEADER)
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1);
+    }
+
+    @Test
+    void getAllTasksCapsPageSize() {
+        // Initialize the database
+        tasksRepository.saveAll(Flux.range(0, TasksResource.MAX_PAGE_SIZE + 1).map(i -> createEntity())).blockLast();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=" + Integer.MAX_VALUE)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .exists(TasksResource.NEXT_CURSOR_HEADER)
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(TasksResource.MAX_PAGE_SIZE);
+    }
+
+    @Test
+    void getAllTasksWithFullLastPage() {
+        // Initialize the database with exactly one page
+        tasksRepository.saveAll(Flux.range(0, 2).map(i -> createEntity())).blockLast();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=2")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist(TasksResource.NEXT_CURSOR_HEADER)
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(2);
+    }
+
+    @Test
+    void getAllTasksWithFilters() {
+        // Initialize the database
+        tasksRepository.save(tasks).block();
+        tasksRepository.save(createUpdatedEntity()).block();
+
+        webTestClient
+            .get()
+            .uri(
+                ENTITY_API_URL + "?completed={completed}&dueDateFrom={from}&dueDateTo={to}&namePrefix={prefix}",
+                DEFAULT_COMPLETED,
+                DEFAULT_DUE_DATE,
+                DEFAULT_DUE_DATE.plusDays(7),
+                DEFAULT_NAME.substring(0, 3)
+            )
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1)
+            .jsonPath("$.[0].id")
+            .isEqualTo(tasks.getId());
+    }
+
+    @Test
+    void getAllTasksWithInvalidDueDateRange() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?dueDateFrom={from}&dueDateTo={to}", UPDATED_DUE_DATE, DEFAULT_DUE_DATE)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getAllTasksWithInvalidCursor() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor=!!!")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getTasksChangesWithInvalidResumeToken() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/changes?resumeToken=!!!")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/changes")
+            .header("Last-Event-ID", "bm90LWpzb24")
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
     @Test
     void getTasks() {
         // Initialize the database
@@ -200,6 +456,78 @@ class TasksResourceIT {
             .value(is(DEFAULT_COMPLETED.booleanValue()));
     }
 
+    @Test
+    void getTasksNotModified() {
+        // Initialize the database
+        tasksRepository.save(tasks).block();
+
+        String etag = webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, tasks.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, "\"0\"")
+            .expectBody()
+            .jsonPath("$.version")
+            .isEqualTo(0)
+            .returnResult()
+            .getResponseHeaders()
+            .getETag();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, tasks.getId())
+            .ifNoneMatch(etag)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isNotModified();
+    }
+
+    @Test
+    void getAllTasksNotModified() {
+        // Initialize the database
+        tasksRepository.save(tasks).block();
+
+        String etag = webTestClient
+            .get()
+            .uri(ENTITY_API_URL)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .exists(HttpHeaders.ETAG)
+            .expectBody()
+            .returnResult()
+            .getResponseHeaders()
+            .getETag();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL)
+            .ifNoneMatch(etag)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isNotModified();
+
+        // Any change of the page changes its tag
+        tasksRepository.partialUpdate(new Tasks().id(tasks.getId()).completed(UPDATED_COMPLETED), null).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL)
+            .ifNoneMatch(etag)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk();
+    }
+
     @Test
     void getNonExistingTasks() {
         // Get the tasks
@@ -241,12 +569,69 @@ class TasksResourceIT {
         assertThat(testTasks.getCompleted()).isEqualTo(UPDATED_COMPLETED);
     }
 
+    @Test
+    void putTasksWithIfMatch() throws Exception {
+        // Initialize the database
+        tasksRepository.save(tasks).block();
+
+        Tasks updatedTasks = createUpdatedEntity().id(tasks.getId());
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, updatedTasks.getId())
+            .ifMatch("\"0\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(updatedTasks))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, "\"1\"");
+
+        // The tasks is now at version 1, so the same precondition fails
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, updatedTasks.getId())
+            .ifMatch("\"0\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(updatedTasks))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        // Any of the listed tags may match
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, updatedTasks.getId())
+            .ifMatch("\"0\"", "\"1\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(updatedTasks))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, "\"2\"");
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, updatedTasks.getId())
+            .header(HttpHeaders.IF_MATCH, "\"1\", *")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(updatedTasks))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        Tasks testTasks = tasksRepository.findById(tasks.getId()).block();
+        assertThat(testTasks.getVersion()).isEqualTo(3L);
+    }
+
     @Test
     void putNonExistingTasks() throws Exception {
         int databaseSizeBeforeUpdate = tasksRepository.findAll().collectList().block().size();
         tasks.setId(UUID.randomUUID().toString());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, it will return 404 Not Found
         webTestClient
             .put()
             .uri(ENTITY_API_URL_ID, tasks.getId())
@@ -254,7 +639,7 @@ class TasksResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(tasks))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Tasks in the database
         List<Tasks> tasksList = tasksRepository.findAll().collectList().block();
@@ -363,12 +748,34 @@ class TasksResourceIT {
         assertThat(testTasks.getCompleted()).isEqualTo(UPDATED_COMPLETED);
     }
 
+    @Test
+    void patchTasksWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        tasksRepository.save(tasks).block();
+
+        Tasks partialUpdatedTasks = new Tasks().id(tasks.getId()).name(UPDATED_NAME);
+
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedTasks.getId())
+            .ifMatch("\"1\"")
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedTasks))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        Tasks testTasks = tasksRepository.findById(tasks.getId()).block();
+        assertThat(testTasks.getName()).isEqualTo(DEFAULT_NAME);
+        assertThat(testTasks.getVersion()).isZero();
+    }
+
     @Test
     void patchNonExistingTasks() throws Exception {
         int databaseSizeBeforeUpdate = tasksRepository.findAll().collectList().block().size();
         tasks.setId(UUID.randomUUID().toString());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, it will return 404 Not Found
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, tasks.getId())
@@ -376,7 +783,7 @@ class TasksResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(tasks))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Tasks in the database
         List<Tasks> tasksList = tasksRepository.findAll().collectList().block();
@@ -443,4 +850,38 @@ class TasksResourceIT {
         List<Tasks> tasksList = tasksRepository.findAll().collectList().block();
         assertThat(tasksList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    void getTasksAfterUpdateAndDelete() {
+        // Initialize the database
+        tasksRepository.save(tasks).block();
+
+        // Get the tasks, so that it gets cached
+        webTestClient.get().uri(ENTITY_API_URL_ID, tasks.getId()).exchange().expectStatus().isOk();
+
+        // Update the tasks, and check the updated tasks is returned
+        Tasks updatedTasks = tasksRepository.findById(tasks.getId()).block();
+        updatedTasks.name(UPDATED_NAME);
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, updatedTasks.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(convertObjectToJsonBytes(updatedTasks))
+            .exchange()
+            .expectStatus()
+            .isOk();
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, tasks.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.name")
+            .value(is(UPDATED_NAME));
+
+        // Delete the tasks, and check it is not returned anymore
+        webTestClient.delete().uri(ENTITY_API_URL_ID, tasks.getId()).exchange().expectStatus().isNoContent();
+        webTestClient.get().uri(ENTITY_API_URL_ID, tasks.getId()).exchange().expectStatus().isNotFound();
+    }
 }
@@ -0,0 +1,60 @@
+package yuchi.springframework.web.rest.errors;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.zalando.problem.Problem;
+import org.zalando.problem.Status;
+
+/**
+ * Benchmark of the translation of errors to problems by {@link ExceptionTranslator}, as done for every failed request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionTranslatorBenchmark {
+
+    private ExceptionTranslator exceptionTranslator;
+
+    private MockServerWebExchange exchange;
+
+    private ResponseEntity<Problem> entity;
+
+    private BadRequestAlertException badRequestAlertException;
+
+    @Setup
+    public void setup() {
+        exceptionTranslator = new ExceptionTranslator(new MockEnvironment());
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/tasks/missing").accept(MediaType.APPLICATION_JSON));
+        entity = new ResponseEntity<>(Problem.builder().withStatus(Status.NOT_FOUND).withTitle("Not Found").build(), HttpStatus.NOT_FOUND);
+        badRequestAlertException = new BadRequestAlertException("Invalid id", "tasks", "idnull");
+    }
+
+    @Benchmark
+    public ResponseEntity<Problem> process() {
+        return exceptionTranslator.process(entity, exchange).block();
+    }
+
+    /**
+     * The whole translation of an exception, which ends with {@link ExceptionTranslator#process}.
+     */
+    @Benchmark
+    public ResponseEntity<Problem> handleBadRequestAlertException() {
+        return exceptionTranslator.handleBadRequestAlertException(badRequestAlertException, exchange).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ExceptionTranslatorBenchmark.class.getSimpleName()).build()).run();
+    }
+}